@@ -0,0 +1,188 @@
+/**
+ * @ Author: turk
+ * @ Description: Meritve hitrosti posameznih faz prevajalnika (JMH).
+ */
+
+package benchmark;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import compiler.frm.Access;
+import compiler.frm.CompilationContext;
+import compiler.frm.Frame;
+import compiler.frm.FrameEvaluator;
+import compiler.gen.ArrayMemory;
+import compiler.gen.LinCodeGenerator;
+import compiler.gen.Memory;
+import compiler.interpret.Interpreter;
+import compiler.ir.IRCodeGenerator;
+import compiler.ir.ParallelIRCodeGenerator;
+import compiler.ir.chunk.Chunk;
+import compiler.lexer.Lexer;
+import compiler.lexer.Symbol;
+import compiler.lexer.TokenBuffer;
+import compiler.lexer.TokenStream;
+import compiler.parser.Parser;
+import compiler.parser.ast.Ast;
+import compiler.parser.ast.NodeIds;
+import compiler.parser.ast.def.Def;
+import compiler.seman.common.NodeDescription;
+import compiler.seman.name.NameChecker;
+import compiler.seman.name.env.FastSymbolTable;
+import compiler.seman.type.TypeChecker;
+import compiler.seman.type.type.Type;
+
+/**
+ * Vsaka meritev izvede natanko eno fazo; vhod ji pripravijo
+ * prejšnje faze v `setup`.
+ *
+ * Zasedenost pomnilnika merimo s profilerjem `-prof gc`.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompilerBenchmark {
+    /**
+     * Velikost pomnilnika navideznega stroja.
+     */
+    private static final int MEMORY = 1 << 20;
+
+    @Param({ "10", "100", "1000" })
+    public int functions;
+
+    @Param({ "1", "4", "16" })
+    public int depth;
+
+    private String source;
+    private List<Symbol> symbols;
+    private Ast ast;
+    private int nodes;
+    private NodeDescription<Def> definitions;
+    private NodeDescription<Type> types;
+    private NodeDescription<Frame> frames;
+    private NodeDescription<Access> accesses;
+    private List<Chunk> chunks;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        source = ProgramGenerator.source(new ProgramGenerator.Config.Builder()
+                .functions(functions)
+                .depth(depth)
+                .build());
+        symbols = new Lexer(source).scan();
+        var ids = new NodeIds();
+        ast = new Parser(TokenStream.of(symbols), Optional.empty(), ids).parse();
+        nodes = ids.count();
+        definitions = new NodeDescription<>();
+        ast.accept(new NameChecker(definitions, new FastSymbolTable()));
+        types = new NodeDescription<>();
+        ast.accept(new TypeChecker(definitions, types));
+        frames = new NodeDescription<>();
+        accesses = new NodeDescription<>();
+        var context = new CompilationContext();
+        ast.accept(new FrameEvaluator(context, frames, accesses, definitions, types));
+        var generator = new IRCodeGenerator(context, new NodeDescription<>(), frames, accesses, definitions, types);
+        ast.accept(generator);
+        chunks = generator.chunks;
+    }
+
+    @Benchmark
+    public List<Symbol> lexer() throws Exception {
+        return new Lexer(source).scan();
+    }
+
+    @Benchmark
+    public TokenBuffer lexerBuffer() {
+        return new Lexer(source).scanBuffer();
+    }
+
+    @Benchmark
+    public Ast parser() {
+        return new Parser(symbols, Optional.empty()).parse();
+    }
+
+    @Benchmark
+    public NodeDescription<Def> nameChecker() {
+        var definitions = new NodeDescription<Def>();
+        ast.accept(new NameChecker(definitions, new FastSymbolTable()));
+        return definitions;
+    }
+
+    @Benchmark
+    public NodeDescription<Type> typeChecker() {
+        var types = new NodeDescription<Type>();
+        ast.accept(new TypeChecker(definitions, types));
+        return types;
+    }
+
+    @Benchmark
+    public NodeDescription<Frame> frameEvaluator() {
+        var frames = new NodeDescription<Frame>();
+        ast.accept(new FrameEvaluator(new CompilationContext(), frames, new NodeDescription<>(), definitions, types));
+        return frames;
+    }
+
+    @Benchmark
+    public List<Chunk> irCodeGenerator() {
+        var generator = new IRCodeGenerator(new CompilationContext(), new NodeDescription<>(), frames, accesses, definitions, types);
+        ast.accept(generator);
+        return generator.chunks;
+    }
+
+    /**
+     * Generiranje vmesne kode v skupnem bazenu niti (`ForkJoinPool.commonPool`).
+     */
+    @Benchmark
+    public List<Chunk> parallelIrCodeGenerator() {
+        var generator = new ParallelIRCodeGenerator(new CompilationContext(), ForkJoinPool.commonPool(),
+                new NodeDescription<>(nodes), frames, accesses, definitions, types);
+        generator.generate(ast);
+        return generator.chunks;
+    }
+
+    @Benchmark
+    public Optional<Chunk.CodeChunk> linCodeGenerator() {
+        return new LinCodeGenerator(new ArrayMemory(MEMORY)).generateCode(chunks);
+    }
+
+    /**
+     * Linearizacija v skupnem bazenu niti (`ForkJoinPool.commonPool`).
+     */
+    @Benchmark
+    public Optional<Chunk.CodeChunk> parallelLinCodeGenerator() {
+        return new LinCodeGenerator(new ArrayMemory(MEMORY)).generateCode(chunks, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Izvajanje potrebuje svež pomnilnik, zato ga pripravimo pred vsakim klicem.
+     */
+    @State(Scope.Thread)
+    public static class Program {
+        private Memory memory;
+        private Chunk.CodeChunk main;
+
+        @Setup(Level.Invocation)
+        public void setup(CompilerBenchmark benchmark) {
+            memory = new ArrayMemory(MEMORY);
+            main = new LinCodeGenerator(memory).generateCode(benchmark.chunks).orElseThrow();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public Memory interpreter(Program program) {
+        new Interpreter(program.memory, Optional.empty()).interpret(program.main);
+        return program.memory;
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * @ Author: turk
+ * @ Description: Ponovna leksikalna analiza po majhnih spremembah.
+ */
+
+package benchmark;
+
+import java.util.Random;
+
+import compiler.lexer.Lexer;
+import compiler.lexer.TokenBuffer;
+
+/**
+ * Na generiranem programu izvede `edits` naključnih sprememb. Po vsaki
+ * primerja rezultat `Lexer.relex` s celotno ponovno analizo in izmeri
+ * čas obeh.
+ *
+ * Uporaba: `IncrementalLexing [edits] [functions] [seed]`.
+ */
+public class IncrementalLexing {
+    /**
+     * Vstavljeni deli kode; vsi so leksikalno veljavni tudi sredi druge kode.
+     */
+    private static final String[] fragments = {
+        "", " ", "\t", "\n", "\r\n", "#", "# x\n", "x", "_1", "42", "fun", "var ", "true",
+        "=", "==", "<", "<=", "!", "!=", "(", ")", "{", ",", ";", "'a'", "'it''s'", "''",
+    };
+
+    public static void main(String[] args) throws Exception {
+        var edits = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        var functions = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        var seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+        var random = new Random(seed);
+
+        String source = ProgramGenerator.source(new ProgramGenerator.Config.Builder()
+                .functions(functions)
+                .strings(2)
+                .seed(seed)
+                .build());
+        var buffer = new Lexer(source).scanBuffer();
+
+        long incrementalNanos = 0, fullNanos = 0;
+        int applied = 0;
+        while (applied < edits) {
+            var offset = random.nextInt(source.length() + 1);
+            var removed = Math.min(random.nextInt(8), source.length() - offset);
+            var inserted = fragments[random.nextInt(fragments.length)];
+            var edited = source.substring(0, offset) + inserted + source.substring(offset + removed);
+            // analizator ob napaki konča program, zato napačne spremembe preskočimo
+            if (!lexicallyValid(edited)) {
+                continue;
+            }
+
+            var start = System.nanoTime();
+            var incremental = Lexer.relex(buffer, offset, removed, inserted);
+            incrementalNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            var full = new Lexer(edited).scanBuffer();
+            fullNanos += System.nanoTime() - start;
+
+            compare(incremental, full, applied);
+            source = edited;
+            buffer = incremental;
+            applied++;
+        }
+
+        System.out.printf("edits: %d, tokens: %d, source: %.1f KiB%n", edits, buffer.size(), source.length() / 1024.0);
+        System.out.printf("full:        %8.1f us/edit%n", fullNanos / 1e3 / edits);
+        System.out.printf("incremental: %8.1f us/edit%n", incrementalNanos / 1e3 / edits);
+    }
+
+    private static void compare(TokenBuffer incremental, TokenBuffer full, int edit) {
+        if (incremental.size() != full.size()) {
+            throw new RuntimeException("Edit " + edit + ": " + incremental.size() + " tokens instead of " + full.size() + "!");
+        }
+        for (int k = 0; k < full.size(); k++) {
+            if (!incremental.symbol(k).equals(full.symbol(k))) {
+                throw new RuntimeException("Edit " + edit + ": symbol " + k + " is "
+                        + incremental.symbol(k) + " instead of " + full.symbol(k) + "!");
+            }
+        }
+    }
+
+    /**
+     * Ali so vsi nizi zaključeni v isti vrstici in vsebujejo le dovoljene znake.
+     */
+    private static boolean lexicallyValid(String source) {
+        var inside = false;
+        var comment = false;
+        for (int i = 0; i < source.length(); i++) {
+            var c = source.charAt(i);
+            if (c == '\n') {
+                if (inside) {
+                    return false;
+                }
+                comment = false;
+            } else if (comment) {
+                continue;
+            } else if (c == '\'') {
+                inside = !inside;
+            } else if (inside && (c < 32 || c > 126)) {
+                return false;
+            } else if (c == '#' && !inside) {
+                comment = true;
+            }
+        }
+        return !inside;
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * @ Author: turk
+ * @ Description: Vzporedna leksikalna analiza več datotek.
+ */
+
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import compiler.lexer.Lexer;
+import compiler.lexer.Symbol;
+
+/**
+ * Leksikalno analizira `files` generiranih programov najprej zaporedno,
+ * nato pa v `threads` nitih, in preveri, da so rezultati enaki.
+ *
+ * Uporaba: `LexerThroughput [files] [threads] [functions]`.
+ */
+public class LexerThroughput {
+    public static void main(String[] args) throws Exception {
+        var files = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        var threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        var functions = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+
+        var sources = new ArrayList<String>();
+        long bytes = 0;
+        for (int i = 0; i < files; i++) {
+            var source = ProgramGenerator.source(new ProgramGenerator.Config.Builder()
+                    .functions(functions)
+                    .depth(1 + i % 8)
+                    .strings(i % 4)
+                    .seed(i)
+                    .build());
+            sources.add(source);
+            bytes += source.length();
+        }
+
+        // ogrevanje
+        for (var source : sources) {
+            new Lexer(source).scan();
+        }
+
+        var start = System.nanoTime();
+        var sequential = new ArrayList<List<Symbol>>();
+        for (var source : sources) {
+            sequential.add(new Lexer(source).scan());
+        }
+        var sequentialNanos = System.nanoTime() - start;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            var tasks = new ArrayList<Callable<List<Symbol>>>();
+            for (var source : sources) {
+                tasks.add(() -> new Lexer(source).scan());
+            }
+            start = System.nanoTime();
+            var futures = executor.invokeAll(tasks);
+            var parallel = new ArrayList<List<Symbol>>();
+            for (var future : futures) {
+                parallel.add(future.get());
+            }
+            var parallelNanos = System.nanoTime() - start;
+
+            for (int i = 0; i < files; i++) {
+                if (!sequential.get(i).equals(parallel.get(i))) {
+                    throw new RuntimeException("Parallel lexing of file " + i + " differs from sequential lexing!");
+                }
+            }
+
+            System.out.printf("files: %d, threads: %d, size: %.1f MiB%n", files, threads, bytes / (1024.0 * 1024.0));
+            System.out.printf("sequential: %8.1f ms %8.1f MiB/s%n", sequentialNanos / 1e6, throughput(bytes, sequentialNanos));
+            System.out.printf("parallel:   %8.1f ms %8.1f MiB/s%n", parallelNanos / 1e6, throughput(bytes, parallelNanos));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static double throughput(long bytes, long nanos) {
+        return bytes / (1024.0 * 1024.0) / (nanos / 1e9);
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * @ Author: turk
+ * @ Description: Alokacije pri linearizaciji globoko gnezdenih izrazov.
+ */
+
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import common.Profiler;
+import compiler.frm.Access;
+import compiler.frm.CompilationContext;
+import compiler.frm.Frame;
+import compiler.frm.FrameEvaluator;
+import compiler.gen.ArrayMemory;
+import compiler.gen.LinCodeGenerator;
+import compiler.gen.Memory;
+import compiler.ir.IRCodeGenerator;
+import compiler.ir.chunk.Chunk;
+import compiler.lexer.Lexer;
+import compiler.parser.Parser;
+import compiler.parser.ast.def.Def;
+import compiler.seman.common.NodeDescription;
+import compiler.seman.name.NameChecker;
+import compiler.seman.name.env.FastSymbolTable;
+import compiler.seman.type.TypeChecker;
+import compiler.seman.type.type.Type;
+
+/**
+ * Za vsako globino gnezdenja prevede program s `functions` funkcijami,
+ * katerih telo je en izraz dane globine (izmenoma seštevanje, klic in
+ * množenje), in izmeri čas ter število alociranih bajtov
+ * `LinCodeGenerator.generateCode` (povprečje `repetitions` ponovitev).
+ *
+ * Uporaba: `LinearizerAllocation [functions] [repetitions] [globina ...]`;
+ * za velike globine poženemo z večjim skladom (npr. `-Xss64m`).
+ */
+public class LinearizerAllocation {
+    private static final int MEMORY = 1 << 16;
+
+    public static void main(String[] args) throws Exception {
+        var functions = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        var repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        var depths = new int[] { 4, 16, 64, 256, 1024 };
+        if (args.length > 2) {
+            depths = new int[args.length - 2];
+            for (int i = 2; i < args.length; i++) {
+                depths[i - 2] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.printf("%6s %14s %12s %10s%n", "depth", "alloc [KiB]", "B/level", "time [ms]");
+        for (var depth : depths) {
+            var chunks = chunks(source(functions, depth));
+            // ogrevanje
+            for (int i = 0; i < repetitions; i++) {
+                new LinCodeGenerator(new ArrayMemory(MEMORY)).generateCode(chunks);
+            }
+            // pomnilnik navideznega stroja ustvarimo pred meritvijo
+            var memories = new ArrayList<Memory>();
+            for (int i = 0; i < repetitions; i++) {
+                memories.add(new ArrayMemory(MEMORY));
+            }
+            var profiler = new Profiler();
+            profiler.begin("LIN");
+            for (var memory : memories) {
+                new LinCodeGenerator(memory).generateCode(chunks);
+            }
+            profiler.end();
+            var measurement = profiler.measurements().get(0);
+            var bytes = measurement.allocatedBytes / (double) repetitions;
+            System.out.printf("%6d %14.1f %12.1f %10.3f%n",
+                    depth,
+                    bytes / 1024,
+                    bytes / ((double) functions * depth),
+                    measurement.wallNanos / 1e6 / repetitions);
+        }
+    }
+
+    /**
+     * Program s funkcijami `f0 .. fN`, katerih telo je izraz globine `depth`.
+     */
+    static String source(int functions, int depth) {
+        var source = new StringBuilder("fun g(x: integer): integer = x;\n");
+        for (int i = 0; i < functions; i++) {
+            source.append("fun f").append(i).append("(x: integer): integer = ");
+            expression(source, depth);
+            source.append(";\n");
+        }
+        source.append("fun main(x: integer): integer = 0\n");
+        return source.toString();
+    }
+
+    private static void expression(StringBuilder source, int depth) {
+        if (depth == 0) {
+            source.append("x");
+            return;
+        }
+        switch (depth % 3) {
+            case 0 -> {
+                source.append("(");
+                expression(source, depth - 1);
+                source.append(" + x)");
+            }
+            case 1 -> {
+                source.append("g(");
+                expression(source, depth - 1);
+                source.append(")");
+            }
+            default -> {
+                source.append("(x * ");
+                expression(source, depth - 1);
+                source.append(")");
+            }
+        }
+    }
+
+    /**
+     * Vmesna koda programa.
+     */
+    private static List<Chunk> chunks(String source) throws Exception {
+        var ast = new Parser(new Lexer(source).scan(), Optional.empty()).parse();
+        var definitions = new NodeDescription<Def>();
+        ast.accept(new NameChecker(definitions, new FastSymbolTable()));
+        var types = new NodeDescription<Type>();
+        ast.accept(new TypeChecker(definitions, types));
+        var frames = new NodeDescription<Frame>();
+        var accesses = new NodeDescription<Access>();
+        var context = new CompilationContext();
+        ast.accept(new FrameEvaluator(context, frames, accesses, definitions, types));
+        var generator = new IRCodeGenerator(context, new NodeDescription<>(), frames, accesses, definitions, types);
+        ast.accept(generator);
+        return generator.chunks;
+    }
+}
@@ -0,0 +1,405 @@
+/**
+ * @ Author: turk
+ * @ Description: Generator sintetičnih programov za merjenje hitrosti prevajalnika.
+ */
+
+package benchmark;
+
+import static common.RequireNonNull.requireNonNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import compiler.common.UnparseVisitor;
+import compiler.lexer.Position;
+import compiler.parser.ast.NodeIds;
+import compiler.parser.ast.def.*;
+import compiler.parser.ast.expr.*;
+import compiler.parser.ast.type.Array;
+import compiler.parser.ast.type.Atom;
+import compiler.parser.ast.type.Type;
+import compiler.parser.ast.type.TypeName;
+
+/**
+ * Generator zgradi AST veljavnega programa (uspešno prestane razreševanje
+ * imen in preverjanje tipov ter se izvajanje vedno zaključi), ki ga nato
+ * izpišemo z `UnparseVisitor`.
+ *
+ * Program je sestavljen iz funkcij `f0 .. fN`; vsaka vsebuje zanko,
+ * ki piše v globalno večdimenzionalno tabelo, prirejanja nizov, verigo
+ * gnezdenih `where` blokov in klice drugih funkcij. Klici vedno kličejo
+ * funkcije z večjim indeksom in zmanjšajo proračun `n`, zato je število
+ * klicev med izvajanjem omejeno.
+ *
+ * Uporaba: `ProgramGenerator [ime=vrednost ...]`, npr.
+ * `ProgramGenerator functions=1000 depth=8 callGraph=RANDOM`.
+ */
+public class ProgramGenerator {
+    /**
+     * Oblika klicnega grafa.
+     */
+    public static enum CallGraph {
+        NONE,   // funkcije se med seboj ne kličejo
+        CHAIN,  // f(i) kliče f(i + 1)
+        TREE,   // f(i) kliče f(2i + 1) in f(2i + 2)
+        RANDOM  // f(i) kliče `fanOut` naključnih funkcij z večjim indeksom
+    }
+
+    /**
+     * Nastavitve generatorja.
+     */
+    public static class Config {
+        public final int functions;
+        public final int depth;
+        public final int dimensions;
+        public final int loopCount;
+        public final int strings;
+        public final int stringLength;
+        public final CallGraph callGraph;
+        public final int fanOut;
+        public final int callBudget;
+        public final long seed;
+
+        private Config(Builder builder) {
+            this.functions = builder.functions;
+            this.depth = builder.depth;
+            this.dimensions = builder.dimensions;
+            this.loopCount = builder.loopCount;
+            this.strings = builder.strings;
+            this.stringLength = builder.stringLength;
+            this.callGraph = builder.callGraph;
+            this.fanOut = builder.fanOut;
+            this.callBudget = builder.callBudget;
+            this.seed = builder.seed;
+        }
+
+        public static class Builder {
+            private int functions = 10;
+            private int depth = 1;
+            private int dimensions = 1;
+            private int loopCount = 10;
+            private int strings = 1;
+            private int stringLength = 16;
+            private CallGraph callGraph = CallGraph.CHAIN;
+            private int fanOut = 2;
+            private int callBudget = 2;
+            private long seed = 42;
+
+            /**
+             * Število funkcij na najvišjem nivoju.
+             */
+            public Builder functions(int functions) {
+                this.functions = positive(functions, "functions");
+                return this;
+            }
+
+            /**
+             * Globina gnezdenja `where` blokov v vsaki funkciji.
+             */
+            public Builder depth(int depth) {
+                this.depth = positive(depth, "depth");
+                return this;
+            }
+
+            /**
+             * Število dimenzij globalne tabele.
+             */
+            public Builder dimensions(int dimensions) {
+                this.dimensions = positive(dimensions, "dimensions");
+                return this;
+            }
+
+            /**
+             * Število obhodov zanke v vsaki funkciji.
+             */
+            public Builder loopCount(int loopCount) {
+                this.loopCount = positive(loopCount, "loopCount");
+                return this;
+            }
+
+            /**
+             * Število nizov v vsaki funkciji.
+             */
+            public Builder strings(int strings) {
+                if (strings < 0) {
+                    throw new IllegalArgumentException("strings must not be negative!");
+                }
+                this.strings = strings;
+                return this;
+            }
+
+            /**
+             * Dolžina generiranih nizov.
+             */
+            public Builder stringLength(int stringLength) {
+                this.stringLength = positive(stringLength, "stringLength");
+                return this;
+            }
+
+            public Builder callGraph(CallGraph callGraph) {
+                requireNonNull(callGraph);
+                this.callGraph = callGraph;
+                return this;
+            }
+
+            /**
+             * Število klicanih funkcij pri `CallGraph.RANDOM`.
+             */
+            public Builder fanOut(int fanOut) {
+                this.fanOut = positive(fanOut, "fanOut");
+                return this;
+            }
+
+            /**
+             * Največja dolžina verige klicev med izvajanjem.
+             */
+            public Builder callBudget(int callBudget) {
+                if (callBudget < 0) {
+                    throw new IllegalArgumentException("callBudget must not be negative!");
+                }
+                this.callBudget = callBudget;
+                return this;
+            }
+
+            public Builder seed(long seed) {
+                this.seed = seed;
+                return this;
+            }
+
+            public Config build() {
+                return new Config(this);
+            }
+
+            private static int positive(int value, String name) {
+                if (value <= 0) {
+                    throw new IllegalArgumentException(name + " must be positive!");
+                }
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Velikost posamezne dimenzije globalne tabele.
+     */
+    private static final int ARRAY_SIZE = 4;
+
+    private final Config config;
+    private final Random random;
+
+    /**
+     * Dodeljevalec identifikatorjev vozlišč ustvarjenega drevesa.
+     */
+    private final NodeIds ids = new NodeIds();
+
+    public ProgramGenerator(Config config) {
+        requireNonNull(config);
+        this.config = config;
+        this.random = new Random(config.seed);
+    }
+
+    /**
+     * Ustvari program s podanimi nastavitvami in ga vrne kot izvorno kodo.
+     */
+    public static String source(Config config) {
+        var os = new ByteArrayOutputStream();
+        var ps = new PrintStream(os, true, StandardCharsets.UTF_8);
+        new ProgramGenerator(config).generate().accept(new UnparseVisitor(2, ps));
+        return os.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Ustvari AST programa.
+     */
+    public Defs generate() {
+        var defs = new ArrayList<Def>();
+        Type grid = Atom.INT(ids, position());
+        for (int i = 0; i < config.dimensions; i++) {
+            grid = new Array(ids, position(), ARRAY_SIZE, grid);
+        }
+        defs.add(new TypeDef(ids, position(), "grid", grid));
+        defs.add(new VarDef(ids, position(), "g", new TypeName(ids, position(), "grid")));
+        defs.add(main());
+        for (int i = 0; i < config.functions; i++) {
+            defs.add(function(i));
+        }
+        return new Defs(ids, position(), defs);
+    }
+
+    // ----------- funkcije -----------
+
+    private FunDef main() {
+        var body = new ArrayList<Expr>();
+        for (int i = 0; i < config.functions; i++) {
+            body.add(call("print_int", call("f" + i, integer(config.callBudget))));
+        }
+        body.add(integer(0));
+        return new FunDef(ids, position(), "main", List.of(parameter("x", Atom.INT(ids, position()))),
+                Atom.INT(ids, position()), new Block(ids, position(), body));
+    }
+
+    /**
+     * fun f<i>(n: integer): integer = (...) { where ... }
+     */
+    private FunDef function(int index) {
+        var body = new ArrayList<Expr>();
+        body.add(assign(name("s"), name("n")));
+        // { for k = 0, loopCount, 1 : ({ g[k % 4]...[k % 4] = s + k }, { s = s % 1000 + g[k % 4]...[k % 4] }) }
+        var loopBody = new Block(ids, position(), List.of(
+                assign(element(), binary(name("s"), Binary.Operator.ADD, name("k"))),
+                assign(name("s"), binary(
+                        binary(name("s"), Binary.Operator.MOD, integer(1000)),
+                        Binary.Operator.ADD,
+                        element()))));
+        body.add(new For(ids, position(), name("k"), integer(0), integer(config.loopCount), integer(1), loopBody));
+        for (int i = 0; i < config.strings; i++) {
+            body.add(assign(name("str"), string()));
+        }
+        // { s = s + h1(s % 7) }
+        body.add(assign(name("s"), binary(name("s"), Binary.Operator.ADD,
+                call("h1", binary(name("s"), Binary.Operator.MOD, integer(7))))));
+        for (var callee : callees(index)) {
+            // { if n > 0 then { s = s + f<j>(n - 1) } }
+            body.add(new IfThenElse(ids, position(),
+                    binary(name("n"), Binary.Operator.GT, integer(0)),
+                    assign(name("s"), binary(name("s"), Binary.Operator.ADD,
+                            call("f" + callee, binary(name("n"), Binary.Operator.SUB, integer(1)))))));
+        }
+        body.add(name("s"));
+
+        var defs = new ArrayList<Def>();
+        defs.add(new VarDef(ids, position(), "s", Atom.INT(ids, position())));
+        defs.add(new VarDef(ids, position(), "k", Atom.INT(ids, position())));
+        defs.add(new VarDef(ids, position(), "str", Atom.STR(ids, position())));
+        defs.add(nested(1));
+        return new FunDef(ids, position(), "f" + index, List.of(parameter("n", Atom.INT(ids, position()))),
+                Atom.INT(ids, position()),
+                new Where(ids, position(), new Block(ids, position(), body), new Defs(ids, position(), defs)));
+    }
+
+    /**
+     * Veriga gnezdenih funkcij `h<level> .. h<depth>`; vsaka bere spremenljivko
+     * `s` zunanje funkcije in kliče naslednjo.
+     */
+    private FunDef nested(int level) {
+        var parameters = List.of(parameter("a", Atom.INT(ids, position())));
+        if (level == config.depth) {
+            // a * 2 + s
+            var body = binary(binary(name("a"), Binary.Operator.MUL, integer(2)), Binary.Operator.ADD, name("s"));
+            return new FunDef(ids, position(), "h" + level, parameters, Atom.INT(ids, position()), body);
+        }
+        // ({ t = a + <level> }, h<level + 1>(t)) { where var t: integer; fun h<level + 1> ... }
+        var body = new Block(ids, position(), List.of(
+                assign(name("t"), binary(name("a"), Binary.Operator.ADD, integer(level))),
+                call("h" + (level + 1), name("t"))));
+        var defs = new Defs(ids, position(), List.of(
+                new VarDef(ids, position(), "t", Atom.INT(ids, position())),
+                nested(level + 1)));
+        return new FunDef(ids, position(), "h" + level, parameters, Atom.INT(ids, position()),
+                new Where(ids, position(), body, defs));
+    }
+
+    private List<Integer> callees(int index) {
+        var callees = new ArrayList<Integer>();
+        switch (config.callGraph) {
+            case NONE:
+                break;
+            case CHAIN:
+                callees.add(index + 1);
+                break;
+            case TREE:
+                callees.add(2 * index + 1);
+                callees.add(2 * index + 2);
+                break;
+            case RANDOM:
+                var remaining = config.functions - index - 1;
+                for (int i = 0; i < config.fanOut && remaining > 0; i++) {
+                    callees.add(index + 1 + random.nextInt(remaining));
+                }
+                break;
+        }
+        callees.removeIf(callee -> callee >= config.functions);
+        return callees;
+    }
+
+    // ----------- izrazi -----------
+
+    /**
+     * g[k % 4][k % 4]...
+     */
+    private Expr element() {
+        Expr element = name("g");
+        for (int i = 0; i < config.dimensions; i++) {
+            element = binary(element, Binary.Operator.ARR, binary(name("k"), Binary.Operator.MOD, integer(ARRAY_SIZE)));
+        }
+        return element;
+    }
+
+    private Literal string() {
+        var sb = new StringBuilder();
+        for (int i = 0; i < config.stringLength; i++) {
+            // ASCII znaki 32 .. 126
+            sb.append((char) (32 + random.nextInt(95)));
+        }
+        return new Literal(ids, position(), sb.toString(), Atom.Type.STR);
+    }
+
+    private Binary assign(Expr left, Expr right) {
+        return binary(left, Binary.Operator.ASSIGN, right);
+    }
+
+    private Binary binary(Expr left, Binary.Operator operator, Expr right) {
+        return new Binary(ids, position(), left, operator, right);
+    }
+
+    private Call call(String name, Expr... arguments) {
+        return new Call(ids, position(), List.of(arguments), name);
+    }
+
+    private Name name(String name) {
+        return new Name(ids, position(), name);
+    }
+
+    private Literal integer(int value) {
+        return new Literal(ids, position(), Integer.toString(value), Atom.Type.INT);
+    }
+
+    private FunDef.Parameter parameter(String name, Type type) {
+        return new FunDef.Parameter(ids, position(), name, type);
+    }
+
+    private static Position position() {
+        return Position.zero();
+    }
+
+    // ----------- ukazna vrstica -----------
+
+    public static void main(String[] args) {
+        var builder = new Config.Builder();
+        for (var arg : args) {
+            var parts = arg.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected name=value, got " + arg + "!");
+            }
+            var value = parts[1];
+            switch (parts[0]) {
+                case "functions" -> builder.functions(Integer.parseInt(value));
+                case "depth" -> builder.depth(Integer.parseInt(value));
+                case "dimensions" -> builder.dimensions(Integer.parseInt(value));
+                case "loopCount" -> builder.loopCount(Integer.parseInt(value));
+                case "strings" -> builder.strings(Integer.parseInt(value));
+                case "stringLength" -> builder.stringLength(Integer.parseInt(value));
+                case "callGraph" -> builder.callGraph(CallGraph.valueOf(value));
+                case "fanOut" -> builder.fanOut(Integer.parseInt(value));
+                case "callBudget" -> builder.callBudget(Integer.parseInt(value));
+                case "seed" -> builder.seed(Long.parseLong(value));
+                default -> throw new IllegalArgumentException("Unknown option " + parts[0] + "!");
+            }
+        }
+        System.out.print(source(builder.build()));
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * @ Author: turk
+ * @ Description: Poraba pomnilnika za shranjene leksikalne simbole.
+ */
+
+package benchmark;
+
+import java.util.List;
+
+import compiler.lexer.Lexer;
+import compiler.lexer.Symbol;
+import compiler.lexer.TokenBuffer;
+
+/**
+ * Primerja zasedenost kopice po leksikalni analizi generiranega programa,
+ * ko simbole hranimo v seznamu `Symbol` oz. v `TokenBuffer`.
+ *
+ * Uporaba: `TokenFootprint [functions] [depth]`; za milijone simbolov
+ * poženemo z dovolj veliko kopico (npr. `-Xmx4g`).
+ */
+public class TokenFootprint {
+    public static void main(String[] args) throws Exception {
+        var functions = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        var depth = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        var source = ProgramGenerator.source(new ProgramGenerator.Config.Builder()
+                .functions(functions)
+                .depth(depth)
+                .callGraph(ProgramGenerator.CallGraph.NONE)
+                .build());
+
+        var base = usedHeap();
+        List<Symbol> symbols = new Lexer(source).scan();
+        var listBytes = usedHeap() - base;
+        var tokens = symbols.size();
+        symbols = null;
+
+        base = usedHeap();
+        TokenBuffer buffer = new Lexer(source).scanBuffer();
+        var bufferBytes = usedHeap() - base;
+        if (buffer.size() != tokens) {
+            throw new RuntimeException("Token counts differ: " + tokens + " vs " + buffer.size());
+        }
+
+        System.out.printf("tokens: %d, source: %.1f MiB%n", tokens, source.length() / (1024.0 * 1024.0));
+        System.out.printf("List<Symbol>: %8.1f MiB %6.1f B/token%n", mebibytes(listBytes), listBytes / (double) tokens);
+        System.out.printf("TokenBuffer:  %8.1f MiB %6.1f B/token%n", mebibytes(bufferBytes), bufferBytes / (double) tokens);
+        System.out.printf("ratio: %.1fx%n", listBytes / (double) bufferBytes);
+        // zadrži simbole do konca meritve
+        System.out.println(buffer.tokenType(buffer.size() - 1));
+    }
+
+    private static long usedHeap() {
+        var runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static double mebibytes(long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * @ Author: turk
+ * @ Description: Vzporedno prevajanje več izvornih datotek.
+ */
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+import cli.PINS;
+import common.CompilationException;
+
+/**
+ * Če `sourceFile` vsebuje več poti (ločenih z `File.pathSeparator`) ali
+ * imenik, se vsaka datoteka `*.pins` prevede s svojim cevovodom
+ * (`Main.run`). Cevovodi tečejo vzporedno v bazenu niti s krajo dela
+ * (`ForkJoinPool`), vsak s svojim kontekstom (`CompilationContext`) in
+ * svojima izhodnima tokovoma.
+ *
+ * Izpisi se zbirajo v pomnilniku in izpišejo v vrstnem redu datotek,
+ * vsak pod glavo `==> <datoteka> <==`, zato je izhod neodvisen od
+ * razporeda niti.
+ */
+class BatchCompiler {
+    private BatchCompiler() {}
+
+    /**
+     * Ali `cli.sourceFile` opisuje več datotek.
+     */
+    static boolean isBatch(PINS cli) {
+        return cli.sourceFile.contains(File.pathSeparator) || Files.isDirectory(Paths.get(cli.sourceFile));
+    }
+
+    /**
+     * Prevedi vse datoteke iz `cli.sourceFile`.
+     *
+     * @return izhodna koda: 0, če so vsa prevajanja uspela, sicer
+     *         največja izhodna koda neuspelega prevajanja.
+     */
+    static int compile(PINS cli, PrintStream out, PrintStream err) throws IOException, InterruptedException {
+        if (!cli.memorySnapshot.isEmpty()) {
+            err.println("--snapshot cannot be used with several source files!");
+            return 2;
+        }
+        var sources = sources(cli.sourceFile);
+        var results = new ArrayList<Callable<Result>>();
+        for (var source : sources) {
+            results.add(() -> compile(cli, source));
+        }
+        var pool = new ForkJoinPool(cli.threads());
+        int exitCode = 0;
+        int failed = 0;
+        try {
+            var futures = pool.invokeAll(results);
+            for (int i = 0; i < sources.size(); i++) {
+                var result = futures.get(i).get();
+                out.println("==> " + sources.get(i) + " <==");
+                result.out.writeTo(out);
+                if (result.err.size() > 0) {
+                    err.println("==> " + sources.get(i) + " <==");
+                    result.err.writeTo(err);
+                }
+                if (result.exitCode != 0) {
+                    exitCode = Math.max(exitCode, result.exitCode);
+                    failed++;
+                }
+            }
+        } catch (ExecutionException e) {
+            // `compile` ujame vse izjeme
+            throw new RuntimeException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        out.flush();
+        err.println("Compiled " + sources.size() + " files, " + failed + " failed.");
+        return exitCode;
+    }
+
+    /**
+     * Izvorne datoteke: poti, ločene z `File.pathSeparator`; imenik
+     * predstavlja vse datoteke `*.pins` v njem (tudi v podimenikih),
+     * urejene po imenu.
+     */
+    static List<Path> sources(String sourceFile) throws IOException {
+        var sources = new ArrayList<Path>();
+        for (var name : sourceFile.split(File.pathSeparator)) {
+            if (name.isEmpty()) {
+                continue;
+            }
+            var path = Paths.get(name);
+            if (Files.isDirectory(path)) {
+                try (var files = Files.walk(path)) {
+                    files.filter(file -> Files.isRegularFile(file) && file.toString().endsWith(".pins"))
+                            .sorted()
+                            .forEach(sources::add);
+                }
+            } else {
+                sources.add(path);
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * Izhod enega prevajanja.
+     */
+    private static class Result {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int exitCode;
+    }
+
+    private static Result compile(PINS cli, Path source) {
+        var result = new Result();
+        try (var out = new PrintStream(result.out, true, UTF_8); var err = new PrintStream(result.err, true, UTF_8)) {
+            result.exitCode = compile(cli, source, out, err);
+        }
+        return result;
+    }
+
+    /**
+     * Izvedi eno prevajanje; vrne izhodno kodo, kot bi jo vrnil `Main`.
+     */
+    static int compile(PINS cli, Path source, PrintStream out, PrintStream err) {
+        try {
+            Main.run(cli, source, out, err);
+            return 0;
+        } catch (CompilationException e) {
+            return e.exitCode;
+        } catch (Exception | StackOverflowError e) {
+            e.printStackTrace(err);
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ * @ Author: turk
+ * @ Description: Strežnik, ki prevaja zahteve v enem (ogretem) procesu.
+ */
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+
+import cli.PINS;
+
+/**
+ * Proces ostane živ med prevajanji, zato se zagon JVM in ogrevanje
+ * prevajalnika JIT plačata le enkrat.
+ *
+ * Protokol (zahteve se obdelajo zaporedno):
+ * - zahteva je ena vrstica z argumenti ukaza `PINS` (brez imena ukaza),
+ *   ločenimi s presledki, npr. `prog.pins --exec INT --dump INT`;
+ * - odgovor je vrstica `<izhodna koda> <dolžina izhoda> <dolžina napak>`,
+ *   ki ji sledita standardni izhod in izhod za napake prevajanja
+ *   (UTF-8, dolžini sta v bajtih).
+ */
+class CompileServer {
+    private CompileServer() {}
+
+    /**
+     * Vrsta datoteke v atributu `unix:mode` (`S_IFMT`) in vrsta vtičnice
+     * (`S_IFSOCK`).
+     */
+    private static final int FILE_TYPE_MASK = 0170000;
+    private static final int SOCKET_TYPE = 0140000;
+
+    /**
+     * Streži zahteve v načinu `cli.server`; vrne izhodno kodo, če strežnika
+     * ni mogoče zagnati.
+     */
+    static int serve(PINS cli) throws IOException {
+        switch (cli.server) {
+            case NONE -> throw new IllegalArgumentException("Not in server mode!");
+            case STDIN -> serve(System.in, System.out);
+            case SOCKET -> {
+                return serve(Path.of(cli.socket));
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Streži odjemalcem vtičnice Unix na poti `path`, enemu za drugim.
+     *
+     * Obstoječo datoteko na poti odstrani le, če je vtičnica, ki je ne
+     * uporablja noben strežnik (ostanek prekinjenega strežnika).
+     */
+    private static int serve(Path path) throws IOException {
+        var address = UnixDomainSocketAddress.of(path);
+        if (Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            if (!isSocket(path)) {
+                System.err.println(path + " exists and is not a socket!");
+                return 2;
+            }
+            if (isListening(address)) {
+                System.err.println(path + " is already used by another server!");
+                return 2;
+            }
+            Files.delete(path);
+        }
+        try (var server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(address);
+            while (true) {
+                try (var channel = server.accept()) {
+                    serve(Channels.newInputStream(channel), Channels.newOutputStream(channel));
+                } catch (IOException e) {
+                    // odjemalec je prekinil povezavo
+                    System.err.println("Client disconnected: " + e.getMessage());
+                }
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static boolean isSocket(Path path) throws IOException {
+        var mode = (int) Files.getAttribute(path, "unix:mode", LinkOption.NOFOLLOW_LINKS);
+        return (mode & FILE_TYPE_MASK) == SOCKET_TYPE;
+    }
+
+    private static boolean isListening(UnixDomainSocketAddress address) {
+        try {
+            SocketChannel.open(address).close();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Beri zahteve iz `input` do konca toka in odgovore piši na `output`.
+     */
+    private static void serve(InputStream input, OutputStream output) throws IOException {
+        var reader = new BufferedReader(new InputStreamReader(input, UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.strip();
+            if (line.isEmpty()) {
+                continue;
+            }
+            var out = new ByteArrayOutputStream();
+            var err = new ByteArrayOutputStream();
+            var exitCode = compile(("PINS " + line).split("\\s+"), out, err);
+            output.write((exitCode + " " + out.size() + " " + err.size() + "\n").getBytes(UTF_8));
+            out.writeTo(output);
+            err.writeTo(output);
+            output.flush();
+        }
+    }
+
+    /**
+     * Izvedi eno zahtevo; vrne izhodno kodo, kot bi jo vrnil `Main`.
+     */
+    private static int compile(String[] args, ByteArrayOutputStream out, ByteArrayOutputStream err) {
+        var outStream = new PrintStream(out, true, UTF_8);
+        var errStream = new PrintStream(err, true, UTF_8);
+        // izpisi mimo podanih tokov (npr. razčlenjevalnik argumentov)
+        // ne smejo pokvariti odgovora
+        var stdout = System.out;
+        var stderr = System.err;
+        System.setOut(outStream);
+        System.setErr(errStream);
+        try {
+            var cli = PINS.tryParse(args);
+            if (cli.isEmpty()) {
+                return 2;
+            }
+            if (cli.get().server != PINS.Server.NONE) {
+                errStream.println("Server requests cannot start a server!");
+                return 2;
+            }
+            if (BatchCompiler.isBatch(cli.get())) {
+                return BatchCompiler.compile(cli.get(), outStream, errStream);
+            }
+            return BatchCompiler.compile(cli.get(), Path.of(cli.get().sourceFile), outStream, errStream);
+        } catch (Exception e) {
+            e.printStackTrace(errStream);
+            return 1;
+        } finally {
+            System.setOut(stdout);
+            System.setErr(stderr);
+            outStream.flush();
+            errStream.flush();
+        }
+    }
+}
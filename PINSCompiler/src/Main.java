@@ -6,23 +6,44 @@
 import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import cli.PINS;
 import cli.PINS.Phase;
+import common.CompilationException;
+import common.Profiler;
+import common.Report;
 import compiler.common.PrettyPrintVisitor4;
 import compiler.frm.Access;
+import compiler.frm.CompilationContext;
 import compiler.frm.Frame;
 import compiler.frm.FrameEvaluator;
+import compiler.gen.ArrayMemory;
+import compiler.gen.BytecodeGenerator;
 import compiler.gen.LinCodeGenerator;
+import compiler.gen.MappedMemory;
 import compiler.gen.Memory;
+import compiler.gen.SimpleMemory;
+import compiler.interpret.BytecodeInterpreter;
 import compiler.interpret.Interpreter;
 import compiler.ir.IRCodeGenerator;
+import compiler.ir.ParallelIRCodeGenerator;
+import compiler.ir.chunk.Chunk;
+import compiler.jvm.JvmGenerator;
+import compiler.jvm.JvmRuntime;
 import compiler.ir.IRPrettyPrint;
 import compiler.lexer.Lexer;
+import compiler.lexer.MappedSource;
+import compiler.lexer.TokenStream;
 import compiler.parser.Parser;
+import compiler.parser.ast.NodeIds;
 import compiler.parser.ast.def.Def;
+import compiler.seman.SemanticAnalyzer;
 import compiler.seman.common.NodeDescription;
 import compiler.seman.name.NameChecker;
 import compiler.seman.name.env.FastSymbolTable;
@@ -38,27 +59,91 @@ public class Main {
      */
     public static void main(String[] args) throws Exception {
         var cli = PINS.parse(args);
-        run(cli);
+        if (cli.server != PINS.Server.NONE) {
+            System.exit(CompileServer.serve(cli));
+        }
+        if (BatchCompiler.isBatch(cli)) {
+            System.exit(BatchCompiler.compile(cli, System.out, System.err));
+        }
+        try {
+            run(cli, Paths.get(cli.sourceFile), System.out, System.err);
+        } catch (CompilationException e) {
+            System.exit(e.exitCode);
+        }
     }
 
 
     // -------------------------------------------------------------------
 
 
-    private static void run(PINS cli) throws Exception {
-        var sourceCode = Files.readString(Paths.get(cli.sourceFile));
-        run(cli, sourceCode);
+    /**
+     * Prevedi (in izvedi) program `path` z nastavitvami `cli`.
+     *
+     * Prevajanje uporablja le podana tokova, zato lahko v ločenih nitih
+     * teče več prevajanj hkrati (glej `BatchCompiler`).
+     *
+     * @param out izhodni tok za izpise faz in izvajanje programa.
+     * @param err izhodni tok za napake prevajanja in meritve (`--profile`).
+     */
+    static void run(PINS cli, Path path, PrintStream out, PrintStream err) throws Exception {
+        var profiler = new Profiler();
+        var pool = cli.codegen == PINS.Codegen.PARALLEL ? Optional.of(pool(cli, profiler)) : Optional.<ForkJoinPool>empty();
+        try {
+            profiler.begin("READ");
+            CharSequence sourceCode = switch (cli.sourceReader) {
+                case STRING -> Files.readString(path);
+                case MAPPED -> MappedSource.open(path);
+            };
+            profiler.end();
+            run(cli, sourceCode, profiler, pool, out);
+        } catch (CompilationException e) {
+            err.println(e.getMessage());
+            throw e;
+        } finally {
+            if (!ForkJoinTask.inForkJoinPool()) {
+                pool.ifPresent(ForkJoinPool::shutdown);
+            }
+            switch (cli.profile) {
+                case NONE -> {}
+                case TABLE -> profiler.printTable(err);
+                case JSON -> profiler.printJson(err);
+            }
+        }
+    }
+
+    /**
+     * Bazen niti za vzporedne faze prevajanja (`--codegen PARALLEL`). Če
+     * prevajanje že teče v bazenu niti (`BatchCompiler`), si naloge delijo
+     * njegove niti; sicer porabo niti bazena meri `profiler`.
+     */
+    private static ForkJoinPool pool(PINS cli, Profiler profiler) {
+        if (ForkJoinTask.inForkJoinPool()) {
+            return ForkJoinTask.getPool();
+        }
+        return new ForkJoinPool(cli.threads(), profiler.workerFactory(), null, false);
     }
 
-    private static void run(PINS cli, String sourceCode) throws Exception {
+    private static void run(PINS cli, CharSequence sourceCode, Profiler profiler, Optional<ForkJoinPool> pool,
+            PrintStream out) throws Exception {
         /**
          * Izvedi leksikalno analizo.
+         *
+         * Če seznama simbolov ne potrebujemo, ga ne ustvarimo; sintaksni
+         * analizator v tem primeru simbole bere sproti iz analizatorja.
          */
-        var symbols = new Lexer(sourceCode).scan();
-        if (cli.dumpPhases.contains(Phase.LEX)) {
-            for (var symbol : symbols) {
-                System.out.println(symbol.toString());
+        TokenStream symbols;
+        if (cli.dumpPhases.contains(Phase.LEX) || cli.execPhase == Phase.LEX) {
+            profiler.begin("LEX");
+            var buffer = new Lexer(sourceCode).scanBuffer();
+            profiler.end();
+            if (cli.dumpPhases.contains(Phase.LEX)) {
+                for (int i = 0; i < buffer.size(); i++) {
+                    out.println(buffer.symbol(i).toString());
+                }
             }
+            symbols = buffer.stream();
+        } else {
+            symbols = new Lexer(sourceCode);
         }
         if (cli.execPhase == Phase.LEX) {
             return;
@@ -66,31 +151,58 @@ public class Main {
         /**
          * Izvedi sintaksno analizo.
          */
-        Optional<PrintStream> out = cli.dumpPhases.contains(Phase.SYN) 
-                ? Optional.of(System.out)
+        Optional<PrintStream> productions = cli.dumpPhases.contains(Phase.SYN) 
+                ? Optional.of(out)
                 : Optional.empty();
-        var parser = new Parser(symbols, out);
-        var ast = parser.parse();
+        profiler.begin(symbols instanceof Lexer ? "LEX+SYN" : "SYN");
+        var ids = new NodeIds();
+        var parser = new Parser(symbols, productions, ids);
+        var ast = switch (cli.syntaxErrors) {
+            case FIRST -> parser.parse();
+            case ALL -> parser.parseRecovering();
+        };
+        profiler.end();
+        if (!parser.diagnostics().isEmpty()) {
+            Report.error(parser.diagnostics());
+        }
         if (cli.execPhase == Phase.SYN) {
             return;
         }
         /**
          * Abstraktna sintaksa.
          */
-        var prettyPrint = new PrettyPrintVisitor4(2, System.out);
+        var prettyPrint = new PrettyPrintVisitor4(2, out);
         if (cli.dumpPhases.contains(Phase.AST)) {
             ast.accept(prettyPrint);
         }
         if (cli.execPhase == Phase.AST) {
             return;
         }
+        var definitions = new NodeDescription<Def>();
+        var types = new NodeDescription<Type>();
+        var frames = new NodeDescription<Frame>();
+        var accesses = new NodeDescription<Access>();
+        var context = new CompilationContext();
+        /**
+         * Združena analiza imen, tipov in klicnih zapisov (le, če
+         * potrebujemo rezultate vseh treh faz).
+         */
+        var fused = cli.analysis == PINS.Analysis.FUSED && cli.execPhase.compareTo(Phase.FRM) >= 0;
+        if (fused) {
+            profiler.begin("NAME+TYP+FRM");
+            ast.accept(new SemanticAnalyzer(context, definitions, types, frames, accesses, new FastSymbolTable()));
+            profiler.end();
+        }
         /**
          * Izvedi razreševanje imen.
          */
-        SymbolTable symbolTable = new FastSymbolTable();
-        var definitions = new NodeDescription<Def>();
-        var nameChecker = new NameChecker(definitions, symbolTable);
-        ast.accept(nameChecker);
+        if (!fused) {
+            SymbolTable symbolTable = new FastSymbolTable();
+            var nameChecker = new NameChecker(definitions, symbolTable);
+            profiler.begin("NAME");
+            ast.accept(nameChecker);
+            profiler.end();
+        }
         if (cli.dumpPhases.contains(Phase.NAME)) {
             prettyPrint.definitions = Optional.of(definitions);
             ast.accept(prettyPrint);
@@ -101,9 +213,12 @@ public class Main {
         /**
          * Izvedi preverjanje tipov.
          */
-        var types = new NodeDescription<Type>();
-        var typeChecker = new TypeChecker(definitions, types);
-        ast.accept(typeChecker);
+        if (!fused) {
+            var typeChecker = new TypeChecker(definitions, types);
+            profiler.begin("TYP");
+            ast.accept(typeChecker);
+            profiler.end();
+        }
         if (cli.dumpPhases.contains(Phase.TYP)) {
             prettyPrint.definitions = Optional.of(definitions);
             prettyPrint.types = Optional.of(types);
@@ -115,10 +230,12 @@ public class Main {
         /**
          * Izvedi analizo klicnih zapisov in dostopov.
          */
-        var frames = new NodeDescription<Frame>();
-        var accesses = new NodeDescription<Access>();
-        var frameEvaluator = new FrameEvaluator(frames, accesses, definitions, types);
-        ast.accept(frameEvaluator);
+        if (!fused) {
+            var frameEvaluator = new FrameEvaluator(context, frames, accesses, definitions, types);
+            profiler.begin("FRM");
+            ast.accept(frameEvaluator);
+            profiler.end();
+        }
         if (cli.dumpPhases.contains(Phase.FRM)) {
             prettyPrint.definitions = Optional.of(definitions);
             prettyPrint.types = Optional.of(types);
@@ -132,10 +249,23 @@ public class Main {
         /**
          * Generiranje vmesne kode.
          */
-        var generator = new IRCodeGenerator(new NodeDescription<>(), frames, accesses, definitions, types);
-        ast.accept(generator);
+        profiler.begin("IMC", pool.isPresent());
+        List<Chunk> chunks = switch (cli.codegen) {
+            case SEQUENTIAL -> {
+                var generator = new IRCodeGenerator(context, new NodeDescription<>(), frames, accesses, definitions, types);
+                ast.accept(generator);
+                yield generator.chunks;
+            }
+            case PARALLEL -> {
+                var generator = new ParallelIRCodeGenerator(context, pool.get(), new NodeDescription<>(ids.count()),
+                        frames, accesses, definitions, types);
+                generator.generate(ast);
+                yield generator.chunks;
+            }
+        };
+        profiler.end();
         if (cli.dumpPhases.contains(Phase.IMC)) {
-            new IRPrettyPrint(System.out, 2).print(generator.chunks);
+            new IRPrettyPrint(out, 2).print(chunks);
         }
         if (cli.execPhase == Phase.IMC) {
             return;
@@ -143,8 +273,18 @@ public class Main {
         /**
          * Linearizacija vmesne kode.
          */
-        var memory = new Memory(cli.memory);
-        var mainCodeChunk = new LinCodeGenerator(memory).generateCode(generator.chunks);
+        profiler.begin("LIN", pool.isPresent());
+        Memory memory = switch (cli.memoryImpl) {
+            case SIMPLE -> new SimpleMemory(cli.memory);
+            case ARRAY -> new ArrayMemory(cli.memory);
+            case MAPPED -> new MappedMemory(cli.memory, Optional.of(cli.memorySnapshot).filter(path -> !path.isEmpty()).map(Paths::get));
+        };
+        var linCodeGenerator = new LinCodeGenerator(memory);
+        var mainCodeChunk = switch (cli.codegen) {
+            case SEQUENTIAL -> linCodeGenerator.generateCode(chunks);
+            case PARALLEL -> linCodeGenerator.generateCode(chunks, pool.get());
+        };
+        profiler.end();
         if (!cli.dumpPhases.contains(Phase.INT)) {
             return;
         }
@@ -152,9 +292,27 @@ public class Main {
          * Izvajanje vmesne kode.
          */
         if (mainCodeChunk.isPresent()) {
-            Optional<PrintStream> outputStream = cli.dumpPhases.contains(Phase.INT) ? Optional.of(System.out) : Optional.empty();
-            var interpreter = new Interpreter(memory, outputStream);
-            interpreter.interpret(mainCodeChunk.get());
+            Optional<PrintStream> outputStream = cli.dumpPhases.contains(Phase.INT) ? Optional.of(out) : Optional.empty();
+            profiler.begin("INT");
+            switch (cli.engine) {
+                case TREE -> {
+                    var interpreter = new Interpreter(memory, outputStream);
+                    interpreter.interpret(mainCodeChunk.get());
+                }
+                case BYTECODE -> {
+                    var program = new BytecodeGenerator(memory).generate(mainCodeChunk.get());
+                    var interpreter = new BytecodeInterpreter(memory, outputStream);
+                    interpreter.interpret(program);
+                }
+                case JVM -> {
+                    var program = new JvmGenerator(memory).generate(mainCodeChunk.get());
+                    new JvmRuntime(memory, linCodeGenerator.dataEnd(), outputStream).run(program);
+                }
+            }
+            profiler.end();
+        }
+        if (memory instanceof MappedMemory mappedMemory && !cli.memorySnapshot.isEmpty()) {
+            mappedMemory.flush();
         }
     }
 }
@@ -6,17 +6,24 @@
 package cli;
 
 import java.util.EnumSet;
+import java.util.Optional;
 
 import ArgPar.Annotation.ParsableArgument;
 import ArgPar.Annotation.ParsableCommand;
 import ArgPar.Annotation.ParsableOption;
 import ArgPar.Exception.ParseException;
 import ArgPar.Parser.ArgumentParser;
+import common.Constants;
+import compiler.gen.Memory;
 
 @ParsableCommand(commandName = "PINS", description = "Prevajalnik za programski jezik PINS")
 public class PINS {
     /**
      * Pot do izvorne datoteke.
+     *
+     * Več datotek podamo kot poti, ločene z `File.pathSeparator`
+     * (npr. `a.pins:b.pins`), ali kot imenik z datotekami `*.pins`;
+     * te se prevedejo vzporedno (glej `--jobs`).
      */
     @ParsableArgument
     public String sourceFile;
@@ -34,22 +41,144 @@ public class PINS {
     public Phase execPhase = Phase.LEX;
 
     /**
-     * Velikost pomnilnika v navideznem stroju.
+     * Velikost pomnilnika v navideznem stroju v bajtih (največ `Memory.MAX_SIZE`).
      */
     @ParsableOption(name = "--memory")
-    public int memory = 1024;
+    public Long memory = 1024L;
+
+    /**
+     * Izvedba pomnilnika v navideznem stroju.
+     */
+    @ParsableOption(name = "--vm-memory")
+    public MemoryImpl memoryImpl = MemoryImpl.ARRAY;
+
+    /**
+     * Način izvajanja vmesne kode.
+     */
+    @ParsableOption(name = "--engine")
+    public Engine engine = Engine.TREE;
+
+    /**
+     * Datoteka, v katero se po izvajanju shrani vsebina pomnilnika (samo `MAPPED`).
+     * Prazen niz pomeni, da se vsebina ne shrani.
+     */
+    @ParsableOption(name = "--snapshot")
+    public String memorySnapshot = "";
+
+    /**
+     * Način branja izvorne datoteke.
+     */
+    @ParsableOption(name = "--source-reader")
+    public SourceReader sourceReader = SourceReader.MAPPED;
+
+    /**
+     * Ali sintaksni analizator ob napaki konča (`FIRST`) ali se opomore
+     * in izpiše vse napake (`ALL`).
+     */
+    @ParsableOption(name = "--syntax-errors")
+    public SyntaxErrors syntaxErrors = SyntaxErrors.FIRST;
+
+    /**
+     * Ali se imena, tipi in klicni zapisi izračunajo z ločenimi fazami
+     * (`PASSES`) ali z enim združenim obhodom (`FUSED`, le pri `--exec FRM`
+     * ali kasnejši fazi).
+     */
+    @ParsableOption(name = "--analysis")
+    public Analysis analysis = Analysis.PASSES;
+
+    /**
+     * Izpis porabe časa in pomnilnika po fazah prevajanja (na standardni izhod za napake).
+     */
+    @ParsableOption(name = "--profile")
+    public Profile profile = Profile.NONE;
+
+    /**
+     * Ali se vmesna koda generira in linearizira zaporedno (`SEQUENTIAL`)
+     * ali vzporedno po funkcijah (`PARALLEL`).
+     */
+    @ParsableOption(name = "--codegen")
+    public Codegen codegen = Codegen.SEQUENTIAL;
+
+    /**
+     * Število niti za vzporedno prevajanje več datotek in za
+     * `--codegen PARALLEL` (0 pomeni število procesorjev).
+     */
+    @ParsableOption(name = "--jobs")
+    public int jobs = 0;
+
+    /**
+     * Način strežnika: proces ostane živ in prevaja zahteve, ki jih bere
+     * s standardnega vhoda (`STDIN`) ali iz vtičnice Unix (`SOCKET`, glej
+     * `--socket`). V tem načinu se `sourceFile` ne uporabi, npr.
+     * `PINS server --server SOCKET --socket /tmp/pins.sock`.
+     */
+    @ParsableOption(name = "--server")
+    public Server server = Server.NONE;
+
+    /**
+     * Pot do vtičnice Unix pri `--server SOCKET`.
+     */
+    @ParsableOption(name = "--socket")
+    public String socket = "";
+
+    /**
+     * Število niti za vzporedno delo (`--jobs`, privzeto število procesorjev).
+     */
+    public int threads() {
+        return jobs == 0 ? Runtime.getRuntime().availableProcessors() : jobs;
+    }
 
     /**
      * Razčleni argumente.
      */
     public static PINS parse(String[] args) {
+        var cli = tryParse(args);
+        if (cli.isEmpty()) {
+            System.exit(2);
+        }
+        return cli.get();
+    }
+
+    /**
+     * Razčleni argumente; če to ni mogoče ali vrednosti niso veljavne,
+     * izpiše napako in vrne `Optional.empty()`.
+     */
+    public static Optional<PINS> tryParse(String[] args) {
+        PINS cli;
         try {
             var parser = new ArgumentParser<PINS>(PINS.class);
-            return parser.parse(args);
+            cli = parser.parse(args);
         } catch (ParseException __) {
-            System.exit(2);
-            return null;
+            return Optional.empty();
+        }
+        var error = cli.validate();
+        if (error.isPresent()) {
+            System.err.println(error.get());
+            return Optional.empty();
+        }
+        return Optional.of(cli);
+    }
+
+    /**
+     * Preveri vrednosti možnosti; vrne opis prve napake.
+     */
+    private Optional<String> validate() {
+        if (memory < Constants.WordSize || memory > Memory.MAX_SIZE) {
+            return Optional.of("--memory must be between " + Constants.WordSize + " and " + Memory.MAX_SIZE + "!");
+        }
+        if (!memorySnapshot.isEmpty() && memoryImpl != MemoryImpl.MAPPED) {
+            return Optional.of("--snapshot can only be used with --vm-memory MAPPED!");
+        }
+        if (jobs < 0) {
+            return Optional.of("--jobs must not be negative!");
+        }
+        if (server == Server.SOCKET && socket.isEmpty()) {
+            return Optional.of("--server SOCKET requires --socket!");
+        }
+        if (server != Server.SOCKET && !socket.isEmpty()) {
+            return Optional.of("--socket can only be used with --server SOCKET!");
         }
+        return Optional.empty();
     }
 
     // --------------------------------------------------------------
@@ -61,6 +190,74 @@ public class PINS {
         LEX, SYN, AST, NAME, TYP, FRM, IMC, INT
     }
 
+    /**
+     * Načini izvajanja vmesne kode.
+     */
+    public static enum Engine {
+        TREE,     // obhod drevesa vmesne kode (`Interpreter`)
+        BYTECODE, // registrska zlogovna koda (`BytecodeInterpreter`)
+        JVM       // bajtna koda JVM (`JvmRuntime`)
+    }
+
+    /**
+     * Izvedbe pomnilnika navideznega stroja.
+     */
+    public static enum MemoryImpl {
+        SIMPLE, // razpršena tabela (`SimpleMemory`)
+        ARRAY,  // tabela celih števil (`ArrayMemory`)
+        MAPPED  // datoteka, preslikana v pomnilnik (`MappedMemory`)
+    }
+
+    /**
+     * Načini branja izvorne datoteke.
+     */
+    public static enum SourceReader {
+        STRING, // celotna datoteka se prebere v niz (`Files.readString`)
+        MAPPED  // datoteka se preslika v pomnilnik (`MappedSource`)
+    }
+
+    /**
+     * Načini obravnave sintaksnih napak.
+     */
+    public static enum SyntaxErrors {
+        FIRST, // konec ob prvi napaki (`Parser.parse`)
+        ALL    // zberi vse napake (`Parser.parseRecovering`)
+    }
+
+    /**
+     * Izvedbe semantične analize.
+     */
+    public static enum Analysis {
+        PASSES, // `NameChecker`, `TypeChecker`, `FrameEvaluator`
+        FUSED   // `SemanticAnalyzer`
+    }
+
+    /**
+     * Načini generiranja kode.
+     */
+    public static enum Codegen {
+        SEQUENTIAL, // `IRCodeGenerator`
+        PARALLEL    // `ParallelIRCodeGenerator`, vzporedna linearizacija
+    }
+
+    /**
+     * Načini strežnika.
+     */
+    public static enum Server {
+        NONE,  // eno prevajanje, nato konec
+        STDIN, // zahteve s standardnega vhoda, odgovori na standardni izhod
+        SOCKET // zahteve iz vtičnice Unix na poti `socket`
+    }
+
+    /**
+     * Oblike izpisa meritev faz prevajanja.
+     */
+    public static enum Profile {
+        NONE,  // brez meritev
+        TABLE, // tabela
+        JSON   // JSON objekt
+    }
+
     /**
      * Razred, ki hrani faze prevajanja.
      */
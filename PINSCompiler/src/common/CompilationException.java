@@ -0,0 +1,27 @@
+/**
+ * @ Author: turk
+ * @ Description: Napaka, ki prekine prevajanje.
+ */
+
+package common;
+
+/**
+ * Izjema, ki jo sproži `Report.error`; sporočilo je besedilo napake,
+ * kot se izpiše uporabniku.
+ *
+ * Ukazna vrstica ob njej konča s kodo `exitCode`, strežnik
+ * (`--server`) pa kodo vrne odjemalcu in nadaljuje z delom.
+ */
+public class CompilationException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Izhodna koda procesa.
+     */
+    public final int exitCode;
+
+    public CompilationException(String message, int exitCode) {
+        super(message);
+        this.exitCode = exitCode;
+    }
+}
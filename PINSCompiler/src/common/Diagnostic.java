@@ -0,0 +1,48 @@
+/**
+ * @ Author: turk
+ * @ Description: Sporočilo o napaki, ki ne prekine prevajanja.
+ */
+
+package common;
+
+import static common.RequireNonNull.requireNonNull;
+
+import java.util.Optional;
+
+import compiler.lexer.Position;
+
+/**
+ * Napaka, ki jo faza prevajanja zabeleži in nadaljuje z delom
+ * (npr. sintaksni analizator v načinu `parseRecovering`).
+ */
+public class Diagnostic {
+    /**
+     * Območje v izvorni datoteki, na katerega se napaka nanaša.
+     */
+    public final Optional<Position> position;
+
+    /**
+     * Opis napake.
+     */
+    public final String message;
+
+    public Diagnostic(Position position, String message) {
+        requireNonNull(position, message);
+        this.position = Optional.of(position);
+        this.message = message;
+    }
+
+    public Diagnostic(String message) {
+        requireNonNull(message);
+        this.position = Optional.empty();
+        this.message = message;
+    }
+
+    /**
+     * Enaka oblika, kot jo izpiše `Report.error`.
+     */
+    @Override
+    public String toString() {
+        return position.map(p -> p.toString() + ": " + message).orElse(message);
+    }
+}
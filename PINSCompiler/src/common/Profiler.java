@@ -0,0 +1,251 @@
+/**
+ * @ Author: turk
+ * @ Description: Merjenje porabe časa in pomnilnika po fazah prevajanja.
+ */
+
+package common;
+
+import static common.RequireNonNull.requireNonNull;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Za vsako fazo izmeri pretečeni čas, procesorski čas in število
+ * alociranih bajtov trenutne niti (`ThreadMXBean`); vzporednim fazam
+ * prišteje še porabo niti bazena (`workerFactory`).
+ *
+ * Vrednosti, ki jih JVM ne podpira ali jih ni mogoče izmeriti, so enake -1.
+ */
+public class Profiler {
+    /**
+     * Meritev ene faze.
+     */
+    public static class Measurement {
+        public final String phase;
+        public final long wallNanos;
+        public final long cpuNanos;
+        public final long allocatedBytes;
+
+        public Measurement(String phase, long wallNanos, long cpuNanos, long allocatedBytes) {
+            requireNonNull(phase);
+            this.phase = phase;
+            this.wallNanos = wallNanos;
+            this.cpuNanos = cpuNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+    }
+
+    private final java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    /**
+     * Razširjen vmesnik (HotSpot), ki zna šteti alocirane bajte.
+     */
+    private final com.sun.management.ThreadMXBean allocations;
+
+    private final List<Measurement> measurements = new ArrayList<>();
+
+    /**
+     * Niti bazena, ki ga je ustvaril ta profiler (`workerFactory`); `null`,
+     * če bazena ni ustvaril (npr. bazen si deli več prevajanj).
+     */
+    private Set<Thread> workers = null;
+
+    private String phase;
+    private long wallStart;
+    private long cpuStart;
+    private long allocatedStart;
+
+    /**
+     * Poraba niti bazena ob začetku vzporedne faze (procesorski čas in
+     * alocirani bajti); `null`, če trenutna faza ni vzporedna.
+     */
+    private Map<Thread, long[]> workersStart = null;
+
+    /**
+     * Ali trenutna faza teče tudi v nitih, ki jih profiler ne pozna.
+     */
+    private boolean unknownWorkers = false;
+
+    public Profiler() {
+        if (threads instanceof com.sun.management.ThreadMXBean bean && bean.isThreadAllocatedMemorySupported()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+            this.allocations = bean;
+        } else {
+            this.allocations = null;
+        }
+        if (threads.isCurrentThreadCpuTimeSupported()) {
+            threads.setThreadCpuTimeEnabled(true);
+        }
+    }
+
+    /**
+     * Začni z merjenjem faze; morebitna prejšnja faza se zaključi.
+     */
+    public void begin(String phase) {
+        begin(phase, false);
+    }
+
+    /**
+     * Začni z merjenjem faze; morebitna prejšnja faza se zaključi.
+     *
+     * Fazi, ki del dela opravi v bazenu niti (`parallel`), se prišteje
+     * poraba niti bazena. Če bazena ni ustvaril ta profiler, porabe
+     * njegovih niti ni mogoče pripisati tej fazi, zato procesorskega časa
+     * in alokacij ne izmeri.
+     */
+    public void begin(String phase, boolean parallel) {
+        requireNonNull(phase);
+        end();
+        this.phase = phase;
+        if (parallel && workers == null) {
+            unknownWorkers = true;
+        } else if (parallel) {
+            workersStart = new HashMap<>();
+            for (var worker : workers) {
+                workersStart.put(worker, new long[] { cpuNanos(worker), allocatedBytes(worker) });
+            }
+        }
+        this.allocatedStart = allocatedBytes();
+        this.cpuStart = cpuNanos();
+        this.wallStart = System.nanoTime();
+    }
+
+    /**
+     * Zaključi merjenje trenutne faze.
+     */
+    public void end() {
+        if (phase == null) {
+            return;
+        }
+        var wall = System.nanoTime() - wallStart;
+        var cpu = cpuNanos();
+        var allocated = allocatedBytes();
+        cpu = cpu < 0 ? -1 : cpu - cpuStart;
+        allocated = allocated < 0 ? -1 : allocated - allocatedStart;
+        if (unknownWorkers) {
+            cpu = -1;
+            allocated = -1;
+        } else if (workersStart != null) {
+            for (var worker : workers) {
+                // niti, ustvarjene med fazo, so začele pri 0
+                var start = workersStart.getOrDefault(worker, new long[2]);
+                cpu = sum(cpu, usage(cpuNanos(worker), start[0]));
+                allocated = sum(allocated, usage(allocatedBytes(worker), start[1]));
+            }
+        }
+        measurements.add(new Measurement(phase, wall, cpu, allocated));
+        phase = null;
+        workersStart = null;
+        unknownWorkers = false;
+    }
+
+    /**
+     * Tovarna niti za bazen vzporednih faz; porabo teh niti profiler
+     * prišteje vzporednim fazam (glej `begin`).
+     */
+    public ForkJoinPool.ForkJoinWorkerThreadFactory workerFactory() {
+        if (workers == null) {
+            workers = ConcurrentHashMap.newKeySet();
+        }
+        return pool -> {
+            var worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            workers.add(worker);
+            return worker;
+        };
+    }
+
+    public List<Measurement> measurements() {
+        return measurements;
+    }
+
+    /**
+     * Izpiši meritve v obliki tabele.
+     */
+    public void printTable(PrintStream stream) {
+        requireNonNull(stream);
+        end();
+        var format = "%-8s %12s %12s %14s%n";
+        stream.printf(format, "phase", "wall [ms]", "cpu [ms]", "alloc [KiB]");
+        long wall = 0, cpu = 0, allocated = 0;
+        for (var measurement : measurements) {
+            stream.printf(format, measurement.phase,
+                    millis(measurement.wallNanos),
+                    millis(measurement.cpuNanos),
+                    kibibytes(measurement.allocatedBytes));
+            wall += measurement.wallNanos;
+            cpu = sum(cpu, measurement.cpuNanos);
+            allocated = sum(allocated, measurement.allocatedBytes);
+        }
+        stream.printf(format, "TOTAL", millis(wall), millis(cpu), kibibytes(allocated));
+    }
+
+    /**
+     * Izpiši meritve v obliki JSON.
+     */
+    public void printJson(PrintStream stream) {
+        requireNonNull(stream);
+        end();
+        var sb = new StringBuilder();
+        sb.append("{\"phases\":[");
+        for (int i = 0; i < measurements.size(); i++) {
+            var measurement = measurements.get(i);
+            if (i > 0) {
+                sb.append(",");
+            }
+            sb.append("{\"phase\":\"").append(measurement.phase).append("\"")
+                .append(",\"wallNanos\":").append(measurement.wallNanos)
+                .append(",\"cpuNanos\":").append(measurement.cpuNanos)
+                .append(",\"allocatedBytes\":").append(measurement.allocatedBytes)
+                .append("}");
+        }
+        sb.append("]}");
+        stream.println(sb);
+    }
+
+    // ----------- pomožne funkcije -----------
+
+    private long cpuNanos() {
+        return threads.isThreadCpuTimeEnabled() ? threads.getCurrentThreadCpuTime() : -1;
+    }
+
+    private long allocatedBytes() {
+        return allocations == null ? -1 : allocations.getCurrentThreadAllocatedBytes();
+    }
+
+    private long cpuNanos(Thread thread) {
+        return threads.isThreadCpuTimeEnabled() ? threads.getThreadCpuTime(thread.threadId()) : -1;
+    }
+
+    private long allocatedBytes(Thread thread) {
+        return allocations == null ? -1 : allocations.getThreadAllocatedBytes(thread.threadId());
+    }
+
+    /**
+     * Poraba niti od vrednosti `start` do `value`; nit, ki se je med fazo
+     * končala (vrednost -1), ne prispeva ničesar. Če JVM vrednosti ne
+     * podpira, je že vrednost trenutne niti enaka -1.
+     */
+    private static long usage(long value, long start) {
+        return value < 0 ? 0 : value - start;
+    }
+
+    private static long sum(long total, long value) {
+        return total < 0 || value < 0 ? -1 : total + value;
+    }
+
+    private static String millis(long nanos) {
+        return nanos < 0 ? "n/a" : String.format("%.3f", nanos / 1e6);
+    }
+
+    private static String kibibytes(long bytes) {
+        return bytes < 0 ? "n/a" : String.format("%.1f", bytes / 1024.0);
+    }
+}
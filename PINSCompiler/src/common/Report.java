@@ -5,7 +5,8 @@
 
 package common;
 
-import java.io.PrintStream;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import compiler.lexer.Position;
 
@@ -18,20 +19,29 @@ public class Report {
      */
     private static final int exitErrorCode = 99;
 
-    /**
-     * Izhodni tok, kamor se izpišejo napake.
-     */
-    public static PrintStream err = System.err;
-
     private Report() {}
 
+    /**
+     * Prekini prevajanje z napako (`CompilationException`).
+     *
+     * Sporočilo izpiše tisti, ki prevajanje zažene (`Main.run`), in sicer
+     * na izhod za napake tega prevajanja.
+     */
     public static void error(String message) {
-        err.println(message);
-        System.exit(exitErrorCode);      
+        throw new CompilationException(message, exitErrorCode);
     }
 
     public static void error(Position position, String message) {
-        err.println(position.toString() + ": " + message);
-        System.exit(exitErrorCode);
+        throw new CompilationException(position.toString() + ": " + message, exitErrorCode);
+    }
+
+    /**
+     * Prekini prevajanje z vsemi zbranimi napakami (vsaka v svoji vrstici).
+     */
+    public static void error(List<Diagnostic> diagnostics) {
+        var message = diagnostics.stream()
+                .map(Diagnostic::toString)
+                .collect(Collectors.joining(System.lineSeparator()));
+        throw new CompilationException(message, exitErrorCode);
     }
 }
@@ -0,0 +1,323 @@
+/**
+ * @ Author: turk
+ * @ Description: Visitor, ki AST izpiše nazaj v izvorno kodo.
+ */
+
+package compiler.common;
+
+import static common.RequireNonNull.requireNonNull;
+
+import java.io.PrintStream;
+import java.util.List;
+
+import compiler.parser.ast.Ast;
+import compiler.parser.ast.def.*;
+import compiler.parser.ast.expr.*;
+import compiler.parser.ast.type.Array;
+import compiler.parser.ast.type.Atom;
+import compiler.parser.ast.type.TypeName;
+
+/**
+ * Izpis je sintaksno veljaven program v jeziku PINS.
+ *
+ * Oklepaji se izpišejo le tam, kjer jih zahteva prioriteta operatorjev,
+ * zato ponovna sintaksna analiza izpisa vrne enako drevo.
+ */
+public class UnparseVisitor implements Visitor {
+    /**
+     * Prioritete izrazov (višja veže močneje).
+     */
+    private static final int WHERE = 0;
+    private static final int OR = 1;
+    private static final int AND = 2;
+    private static final int COMPARE = 3;
+    private static final int ADDITIVE = 4;
+    private static final int MULTIPLICATIVE = 5;
+    private static final int PREFIX = 6;
+    private static final int POSTFIX = 7;
+
+    /**
+     * Trenutna indentacija.
+     */
+    private int indent = 0;
+
+    /**
+     * Za koliko naj se indentacija poveča pri gnezdenju.
+     */
+    private final int increaseIndentBy;
+
+    /**
+     * Izhodni tok, na katerega se izpiše program.
+     */
+    private final PrintStream stream;
+
+    /**
+     * Ustvari novo instanco.
+     *
+     * @param increaseIndentBy za koliko naj se poveča indentacija pri gnezdenju.
+     * @param stream izhodni tok.
+     */
+    public UnparseVisitor(int increaseIndentBy, PrintStream stream) {
+        requireNonNull(stream);
+        this.increaseIndentBy = increaseIndentBy;
+        this.stream = stream;
+    }
+
+    /**
+     * Implementacija ``Visitor`` vmesnika:
+     */
+
+    @Override
+    public void visit(Call call) {
+        stream.print(call.name);
+        stream.print("(");
+        separated(call.arguments, ", ");
+        stream.print(")");
+    }
+
+    @Override
+    public void visit(Binary binary) {
+        if (binary.operator == Binary.Operator.ASSIGN) {
+            stream.print("{ ");
+            binary.left.accept(this);
+            stream.print(" = ");
+            binary.right.accept(this);
+            stream.print(" }");
+        } else if (binary.operator == Binary.Operator.ARR) {
+            operand(binary.left, POSTFIX);
+            stream.print("[");
+            binary.right.accept(this);
+            stream.print("]");
+        } else {
+            var precedence = precedence(binary);
+            // primerjave niso asociativne, ostali operatorji so levo asociativni
+            operand(binary.left, precedence == COMPARE ? precedence + 1 : precedence);
+            stream.print(" " + symbol(binary.operator) + " ");
+            operand(binary.right, precedence + 1);
+        }
+    }
+
+    @Override
+    public void visit(Block block) {
+        if (block.expressions.size() == 1) {
+            stream.print("(");
+            block.expressions.get(0).accept(this);
+            stream.print(")");
+            return;
+        }
+        stream.print("(");
+        indent += increaseIndentBy;
+        for (int i = 0; i < block.expressions.size(); i++) {
+            newLine();
+            block.expressions.get(i).accept(this);
+            if (i + 1 < block.expressions.size()) {
+                stream.print(",");
+            }
+        }
+        indent -= increaseIndentBy;
+        newLine();
+        stream.print(")");
+    }
+
+    @Override
+    public void visit(For forLoop) {
+        stream.print("{ for ");
+        forLoop.counter.accept(this);
+        stream.print(" = ");
+        forLoop.low.accept(this);
+        stream.print(", ");
+        forLoop.high.accept(this);
+        stream.print(", ");
+        forLoop.step.accept(this);
+        stream.print(" : ");
+        forLoop.body.accept(this);
+        stream.print(" }");
+    }
+
+    @Override
+    public void visit(Name name) {
+        stream.print(name.name);
+    }
+
+    @Override
+    public void visit(IfThenElse ifThenElse) {
+        stream.print("{ if ");
+        ifThenElse.condition.accept(this);
+        stream.print(" then ");
+        ifThenElse.thenExpression.accept(this);
+        ifThenElse.elseExpression.ifPresent(elseExpression -> {
+            stream.print(" else ");
+            elseExpression.accept(this);
+        });
+        stream.print(" }");
+    }
+
+    @Override
+    public void visit(Literal literal) {
+        if (literal.type == Atom.Type.STR) {
+            stream.print("'" + literal.value.replace("'", "''") + "'");
+        } else {
+            stream.print(literal.value);
+        }
+    }
+
+    @Override
+    public void visit(Unary unary) {
+        switch (unary.operator) {
+            case ADD -> stream.print("+");
+            case SUB -> stream.print("-");
+            case NOT -> stream.print("!");
+        }
+        operand(unary.expr, PREFIX);
+    }
+
+    @Override
+    public void visit(While whileLoop) {
+        stream.print("{ while ");
+        whileLoop.condition.accept(this);
+        stream.print(" : ");
+        whileLoop.body.accept(this);
+        stream.print(" }");
+    }
+
+    @Override
+    public void visit(Where where) {
+        operand(where.expr, OR);
+        stream.print(" { where");
+        indent += increaseIndentBy;
+        newLine();
+        where.defs.accept(this);
+        indent -= increaseIndentBy;
+        newLine();
+        stream.print("}");
+    }
+
+    @Override
+    public void visit(Defs defs) {
+        for (int i = 0; i < defs.definitions.size(); i++) {
+            if (i > 0) {
+                stream.print(";");
+                newLine();
+            }
+            defs.definitions.get(i).accept(this);
+        }
+        if (indent == 0) {
+            stream.println();
+        }
+    }
+
+    @Override
+    public void visit(FunDef funDef) {
+        stream.print("fun " + funDef.name + "(");
+        separated(funDef.parameters, ", ");
+        stream.print("): ");
+        funDef.type.accept(this);
+        stream.print(" = ");
+        funDef.body.accept(this);
+    }
+
+    @Override
+    public void visit(TypeDef typeDef) {
+        stream.print("typ " + typeDef.name + ": ");
+        typeDef.type.accept(this);
+    }
+
+    @Override
+    public void visit(VarDef varDef) {
+        stream.print("var " + varDef.name + ": ");
+        varDef.type.accept(this);
+    }
+
+    @Override
+    public void visit(FunDef.Parameter parameter) {
+        stream.print(parameter.name + ": ");
+        parameter.type.accept(this);
+    }
+
+    @Override
+    public void visit(Array array) {
+        stream.print("arr[" + array.size + "] ");
+        array.type.accept(this);
+    }
+
+    @Override
+    public void visit(Atom atom) {
+        switch (atom.type) {
+            case INT -> stream.print("integer");
+            case LOG -> stream.print("logical");
+            case STR -> stream.print("string");
+        }
+    }
+
+    @Override
+    public void visit(TypeName name) {
+        stream.print(name.identifier);
+    }
+
+    // ----------- pomožne funkcije -----------
+
+    /**
+     * Izpiše izraz; če veže šibkeje od `precedence`, ga obda z oklepaji.
+     */
+    private void operand(Expr expr, int precedence) {
+        if (precedence(expr) < precedence) {
+            stream.print("(");
+            expr.accept(this);
+            stream.print(")");
+        } else {
+            expr.accept(this);
+        }
+    }
+
+    private int precedence(Expr expr) {
+        if (expr instanceof Where) {
+            return WHERE;
+        } else if (expr instanceof Binary binary) {
+            switch (binary.operator) {
+                case OR: return OR;
+                case AND: return AND;
+                case EQ: case NEQ: case LT: case GT: case LEQ: case GEQ: return COMPARE;
+                case ADD: case SUB: return ADDITIVE;
+                case MUL: case DIV: case MOD: return MULTIPLICATIVE;
+                default: return POSTFIX;
+            }
+        } else if (expr instanceof Unary) {
+            return PREFIX;
+        }
+        return POSTFIX;
+    }
+
+    private String symbol(Binary.Operator operator) {
+        switch (operator) {
+            case ADD: return "+";
+            case SUB: return "-";
+            case MUL: return "*";
+            case DIV: return "/";
+            case MOD: return "%";
+            case AND: return "&";
+            case OR: return "|";
+            case EQ: return "==";
+            case NEQ: return "!=";
+            case LT: return "<";
+            case GT: return ">";
+            case LEQ: return "<=";
+            case GEQ: return ">=";
+            default:
+                throw new IllegalArgumentException("Operator " + operator + " has no infix form!");
+        }
+    }
+
+    private void separated(List<? extends Ast> nodes, String separator) {
+        for (int i = 0; i < nodes.size(); i++) {
+            if (i > 0) {
+                stream.print(separator);
+            }
+            nodes.get(i).accept(this);
+        }
+    }
+
+    private void newLine() {
+        stream.println();
+        stream.print(" ".repeat(indent));
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * @ Author: turk
+ * @ Description: Stanje enega prevajanja.
+ */
+
+package compiler.frm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generatorja imen začasnih spremenljivk in anonimnih label.
+ *
+ * Vsako prevajanje ustvari svoj kontekst in ga poda fazam, ki ustvarjajo
+ * nova imena (`FrameEvaluator`, `IRCodeGenerator`). Imena so tako odvisna
+ * le od prevajanega programa, ne pa od drugih prevajanj v istem procesu.
+ */
+public class CompilationContext {
+    /**
+     * Števec začasnih spremenljivk.
+     */
+    private int tempCount = 0;
+
+    /**
+     * Števec anonimnih label.
+     */
+    private int labelCount = 0;
+
+    /**
+     * Ustvari novo začasno spremenljivko.
+     */
+    public Frame.Temp nextTemp() {
+        return new Frame.Temp(tempCount++);
+    }
+
+    /**
+     * Anonimne labele, ki jim imena določi šele `nameLabels`; `null`, če
+     * kontekst labele poimenuje takoj.
+     */
+    private final List<Frame.Label> unnamedLabels;
+
+    public CompilationContext() {
+        this.unnamedLabels = null;
+    }
+
+    private CompilationContext(List<Frame.Label> unnamedLabels) {
+        this.unnamedLabels = unnamedLabels;
+    }
+
+    /**
+     * Ustvari kontekst, ki anonimnih label ne poimenuje takoj, temveč jih
+     * le šteje od 0 naprej, imena pa jim kasneje določi `nameLabels`.
+     *
+     * Vzporedne naloge (npr. generiranje vmesne kode posamezne funkcije)
+     * ne vedo, koliko label porabijo predhodne naloge, zato dobijo vsaka
+     * svoj tak kontekst; labele se poimenujejo, ko so vse naloge končane.
+     */
+    public static CompilationContext deferred() {
+        return new CompilationContext(new ArrayList<>());
+    }
+
+    /**
+     * Ustvari novo anonimno labelo.
+     */
+    public Frame.Label nextLabel() {
+        if (unnamedLabels == null) {
+            return new Frame.Label(anonymous(labelCount++));
+        }
+        var label = new Frame.Label(null);
+        unnamedLabels.add(label);
+        labelCount++;
+        return label;
+    }
+
+    /**
+     * Zaporedna številka naslednje anonimne labele.
+     */
+    public int labelCount() {
+        return labelCount;
+    }
+
+    /**
+     * Preskoči `count` anonimnih label (ustvari jih drug kontekst).
+     */
+    public void skipLabels(int count) {
+        labelCount += count;
+    }
+
+    /**
+     * Labelam s številkami od `from` do `to` (brez `to`) določi imena z
+     * zaporednimi številkami od `firstLabel` naprej in vrni številko
+     * naslednje labele.
+     */
+    public int nameLabels(int from, int to, int firstLabel) {
+        for (int i = from; i < to; i++) {
+            unnamedLabels.get(i).setName(anonymous(firstLabel++));
+        }
+        return firstLabel;
+    }
+
+    private static String anonymous(int number) {
+        return "L[" + number + "]";
+    }
+}
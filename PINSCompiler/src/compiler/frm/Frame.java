@@ -75,22 +75,21 @@ public class Frame {
      * Začasna spremenljivka.
      */
     public static class Temp {
-        private static int count = 0;
-
         /**
          * 'Ime' začasne spremenljivke.
          */
         public final int id;
 
-        private Temp(int id) {
+        Temp(int id) {
             this.id = id;
         }
 
         /**
-         * Ustvari novo začasno spremenljivko.
+         * Ustvari začasno spremenljivko s podanim indeksom
+         * (indeksi so lokalni za posamezen fragment kode).
          */
-        public static Temp next() {
-            return new Temp(count++);
+        public static Temp local(int index) {
+            return new Temp(index);
         }
 
         @Override
@@ -116,24 +115,24 @@ public class Frame {
      */
     public static class Label {
         /**
-         * Števec anonimnih label.
-         */
-        private static int count = 0;
-
-        /**
-         * Ime labele.
+         * Ime labele (anonimnim labelam vzporednega generiranja ga določi
+         * šele `CompilationContext.nameLabels`).
          */
-        public final String name;
+        private String name;
 
-        private Label(String name) {
+        Label(String name) {
             this.name = name;
         }
 
         /**
-         * Ustvari novo anonimno labelo.
+         * Ime labele.
          */
-        public static Label nextAnonymous() {
-            return new Label("L[" + count++ + "]");
+        public String name() {
+            return name;
+        }
+
+        void setName(String name) {
+            this.name = name;
         }
 
         /**
@@ -45,16 +45,23 @@ public class FrameEvaluator implements Visitor {
      */
     private final NodeDescription<Type> types;
 
+    /**
+     * Generator anonimnih label.
+     */
+    private final CompilationContext context;
+
     Stack<Frame.Builder> stack = new Stack<>();
     int scope = 0;
 
     public FrameEvaluator(
+            CompilationContext context,
             NodeDescription<Frame> frames,
             NodeDescription<Access> accesses,
             NodeDescription<Def> definitions,
             NodeDescription<Type> types
     ) {
-        requireNonNull(frames, accesses, definitions, types);
+        requireNonNull(context, frames, accesses, definitions, types);
+        this.context = context;
         this.frames = frames;
         this.accesses = accesses;
         this.definitions = definitions;
@@ -65,7 +72,7 @@ public class FrameEvaluator implements Visitor {
     public void visit(Call call) {
         // TODO Auto-generated method stub
         var a = stack.pop();
-        var size = call.arguments.stream().map(args -> types.valueFor(args).get()).mapToInt(type -> type.sizeInBytesAsParam()).sum();
+        var size = call.arguments.stream().map(types::get).mapToInt(type -> type.sizeInBytesAsParam()).sum();
         ArrayList imena = new ArrayList<>(Arrays.asList("print_int","print_str","print_log","rand_int","seed"));
         if(!imena.contains(call.name))
             a.addFunctionCall(size+4);
@@ -169,12 +176,12 @@ public class FrameEvaluator implements Visitor {
         if (scope == 1){
             frm = new Frame.Builder(Frame.Label.named(funDef.name), scope);
         } else{
-            frm = new Frame.Builder(Frame.Label.nextAnonymous(), scope);
+            frm = new Frame.Builder(context.nextLabel(), scope);
         }
         frm.addParameter(4);
         for (Parameter param : funDef.parameters){
-            var offset = frm.addParameter(types.valueFor(param.type).get().sizeInBytesAsParam());
-            accesses.store(new Access.Parameter(types.valueFor(param.type).get().sizeInBytesAsParam(),
+            var offset = frm.addParameter(types.get(param.type).sizeInBytesAsParam());
+            accesses.store(new Access.Parameter(types.get(param.type).sizeInBytesAsParam(),
                     offset, scope), param);
         }
         stack.push(frm);
@@ -189,12 +196,12 @@ public class FrameEvaluator implements Visitor {
     public void visit(TypeDef typeDef) {
         // TODO Auto-generated method stub
         if (scope == 0){
-            accesses.store(new Access.Global(types.valueFor(typeDef).get().sizeInBytes(),
+            accesses.store(new Access.Global(types.get(typeDef).sizeInBytes(),
                     Frame.Label.named(typeDef.name)), typeDef);
         } else{
             Frame.Builder b = stack.pop();
-            accesses.store(new Access.Local(types.valueFor(typeDef).get().sizeInBytes(),
-                    b.addLocalVariable(types.valueFor(typeDef).get().sizeInBytes()), scope), typeDef);
+            accesses.store(new Access.Local(types.get(typeDef).sizeInBytes(),
+                    b.addLocalVariable(types.get(typeDef).sizeInBytes()), scope), typeDef);
             stack.push(b);
         }
 
@@ -204,12 +211,12 @@ public class FrameEvaluator implements Visitor {
     public void visit(VarDef varDef) {
         // TODO Auto-generated method stub
         if (scope == 0){
-            accesses.store(new Access.Global(types.valueFor(varDef).get().sizeInBytes(),
+            accesses.store(new Access.Global(types.get(varDef).sizeInBytes(),
                     Frame.Label.named(varDef.name)), varDef);
         } else{
             Frame.Builder b = stack.pop();
-            accesses.store(new Access.Local(types.valueFor(varDef).get().sizeInBytes(),
-                    b.addLocalVariable(types.valueFor(varDef).get().sizeInBytes()), scope), varDef);
+            accesses.store(new Access.Local(types.get(varDef).sizeInBytes(),
+                    b.addLocalVariable(types.get(varDef).sizeInBytes()), scope), varDef);
             stack.push(b);
         }
 
@@ -0,0 +1,106 @@
+/**
+ * @ Author: turk
+ * @ Description: Pomnilnik, predstavljen s tabelo celih števil.
+ */
+
+package compiler.gen;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import common.Constants;
+
+/**
+ * Vsaka beseda pomnilnika zaseda en element tabele `words`,
+ * indeksiran z `address / WordSize`. Vrednosti, ki niso cela števila
+ * (fragmenti kode, nizi), hranimo v ločeni preslikavi.
+ */
+public class ArrayMemory extends Memory {
+    /**
+     * Vrste pomnilniških celic.
+     */
+    private static final byte EMPTY = 0;
+    private static final byte INT = 1;
+    private static final byte OBJECT = 2;
+
+    /**
+     * Vsebina celic, ki hranijo cela števila.
+     */
+    private final int[] words;
+
+    /**
+     * Vrsta vsake celice (`EMPTY`, `INT` ali `OBJECT`).
+     */
+    private final byte[] kinds;
+
+    /**
+     * Vsebina celic, ki ne hranijo celih števil.
+     */
+    private Map<Integer, Object> objects = new HashMap<>();
+
+    public ArrayMemory(long size) {
+        super(size);
+        // Naslov `size` je še veljaven (argument funkcije `main`).
+        this.words = new int[(int) (size / Constants.WordSize + 1)];
+        this.kinds = new byte[words.length];
+    }
+
+    @Override
+    public void stM(int address, Object value) {
+        if (value instanceof Integer integer) {
+            stI(address, integer);
+        } else if (value instanceof Boolean bool) {
+            stI(address, bool ? 1 : 0);
+        } else {
+            validateAddress(address);
+            objects.put(address, value);
+            kinds[wordIndex(address)] = OBJECT;
+        }
+    }
+
+    @Override
+    public void stI(int address, int value) {
+        validateAddress(address);
+        var index = wordIndex(address);
+        if (kinds[index] == OBJECT) {
+            objects.remove(address);
+        }
+        words[index] = value;
+        kinds[index] = INT;
+    }
+
+    @Override
+    public Object ldM(int address) {
+        validateAddress(address);
+        var index = wordIndex(address);
+        switch (kinds[index]) {
+            case INT:
+                return words[index];
+            case OBJECT:
+                return objects.get(address);
+            default:
+                throw new IllegalArgumentException("Empty address " + address + "!");
+        }
+    }
+
+    @Override
+    public int ldI(int address) {
+        validateAddress(address);
+        var index = wordIndex(address);
+        if (kinds[index] == INT) {
+            return words[index];
+        }
+        return super.ldI(address);
+    }
+
+    @Override
+    protected Map<Integer, Object> contents() {
+        var contents = new HashMap<Integer, Object>(objects);
+        for (int index = 0; index < words.length; index++) {
+            if (kinds[index] == INT) {
+                contents.put(index * Constants.WordSize, words[index]);
+            }
+        }
+        return contents;
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * @ Author: turk
+ * @ Description: Registrska zlogovna koda navideznega stroja.
+ */
+
+package compiler.gen;
+
+import static common.RequireNonNull.requireNonNull;
+
+import java.util.List;
+
+import compiler.frm.Frame;
+
+/**
+ * Ukazi so zapisani zaporedoma v tabeli celih števil; vsakemu
+ * operacijskemu kodu sledijo njegovi operandi. Operandi `d`, `a`, `b`
+ * so indeksi registrov, `imm` je takojšnja vrednost, `pc` pa indeks
+ * ukaza v tabeli.
+ */
+public class Bytecode {
+    private Bytecode() {}
+
+    public static final int CONST     = 0;  // d imm       d = imm
+    public static final int MOVE      = 1;  // d a         d = a
+    public static final int FP        = 2;  // d           d = FP
+    public static final int SP        = 3;  // d           d = SP
+    public static final int LOAD      = 4;  // d a         d = MEM[a]
+    public static final int STORE     = 5;  // a b         MEM[a] = b
+    public static final int LOADFP    = 6;  // d imm       d = MEM[FP + imm]
+    public static final int STOREFP   = 7;  // imm b       MEM[FP + imm] = b
+
+    public static final int ADD       = 8;  // d a b       d = a + b
+    public static final int SUB       = 9;
+    public static final int MUL       = 10;
+    public static final int DIV       = 11;
+    public static final int MOD       = 12;
+    public static final int AND       = 13;
+    public static final int OR        = 14;
+    public static final int EQ        = 15;
+    public static final int NEQ       = 16;
+    public static final int LT        = 17;
+    public static final int GT        = 18;
+    public static final int LEQ       = 19;
+    public static final int GEQ       = 20;
+
+    public static final int JUMP      = 21; // pc          skoči na pc
+    public static final int CJUMP     = 22; // a pc1 pc2   a == 1 ? pc1 : pc2
+    public static final int CALL      = 23; // d fn n a1..an   klic funkcije `fn` z n argumenti
+    public static final int RETURN    = 24; //             konec funkcije
+
+    public static final int PRINT_INT = 25; // a
+    public static final int PRINT_STR = 26; // a
+    public static final int PRINT_LOG = 27; // a
+    public static final int RAND_INT  = 28; // d a b
+    public static final int SEED      = 29; // a
+
+    /**
+     * Prevedena funkcija.
+     */
+    public static class Function {
+        /**
+         * Klicni zapis funkcije.
+         */
+        public final Frame frame;
+
+        /**
+         * Ukazi.
+         */
+        public final int[] code;
+
+        /**
+         * Število registrov, ki jih funkcija potrebuje.
+         */
+        public final int registers;
+
+        public Function(Frame frame, int[] code, int registers) {
+            requireNonNull(frame, code);
+            this.frame = frame;
+            this.code = code;
+            this.registers = registers;
+        }
+    }
+
+    /**
+     * Preveden program.
+     */
+    public static class Program {
+        /**
+         * Funkcije programa; operand `fn` ukaza `CALL` je indeks v ta seznam.
+         */
+        public final List<Function> functions;
+
+        /**
+         * Indeks funkcije `main`.
+         */
+        public final int main;
+
+        public Program(List<Function> functions, int main) {
+            requireNonNull(functions);
+            this.functions = functions;
+            this.main = main;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+/**
+ * @ Author: turk
+ * @ Description: Prevajanje linearizirane vmesne kode v registrsko zlogovno kodo.
+ */
+
+package compiler.gen;
+
+import static common.RequireNonNull.requireNonNull;
+import static compiler.gen.Bytecode.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import common.Constants;
+import compiler.frm.Frame;
+import compiler.ir.chunk.Chunk.CodeChunk;
+import compiler.ir.code.expr.*;
+import compiler.ir.code.stmt.*;
+
+public class BytecodeGenerator {
+    /**
+     * Pomnilnik navideznega stroja (iz njega beremo fragmente kode in naslove label).
+     */
+    private final Memory memory;
+
+    /**
+     * Prevedene funkcije.
+     */
+    private final List<Bytecode.Function> functions = new ArrayList<>();
+
+    /**
+     * Preslikava iz vstopnih label funkcij v indekse prevedenih funkcij.
+     */
+    private final Map<Frame.Label, Integer> functionIndices = new HashMap<>();
+
+    /**
+     * Fragmenti kode, ki jih moramo še prevesti.
+     */
+    private final List<CodeChunk> pending = new ArrayList<>();
+
+    // ------ stanje trenutno prevajane funkcije ------
+
+    private int[] code;
+    private int length;
+    private int nextRegister;
+    private int maxRegisters;
+    private Map<Frame.Label, Integer> labels;
+    private Map<Integer, Frame.Label> fixups;
+
+    public BytecodeGenerator(Memory memory) {
+        requireNonNull(memory);
+        this.memory = memory;
+    }
+
+    /**
+     * Prevede funkcijo `main` in vse funkcije, ki so iz nje dosegljive.
+     *
+     * @param main lineariziran fragment kode funkcije `main`
+     */
+    public Bytecode.Program generate(CodeChunk main) {
+        var mainIndex = functionIndex(main);
+        for (int i = 0; i < pending.size(); i++) {
+            functions.set(i, generateFunction(pending.get(i)));
+        }
+        return new Bytecode.Program(functions, mainIndex);
+    }
+
+    private int functionIndex(CodeChunk chunk) {
+        var index = functionIndices.get(chunk.frame.label);
+        if (index == null) {
+            index = functions.size();
+            functionIndices.put(chunk.frame.label, index);
+            functions.add(null);
+            pending.add(chunk);
+        }
+        return index;
+    }
+
+    private Bytecode.Function generateFunction(CodeChunk chunk) {
+        if (!(chunk.code instanceof SeqStmt seq)) {
+            throw new RuntimeException("Linearize IR!");
+        }
+        code = new int[16];
+        length = 0;
+        labels = new HashMap<>();
+        fixups = new HashMap<>();
+        // začasne spremenljivke so po linearizaciji oštevilčene 0..temps-1
+        // in zasedejo prve registre, pomožni registri sledijo
+        maxRegisters = chunk.temps;
+        for (var stmt : seq.statements) {
+            nextRegister = chunk.temps;
+            generate(stmt);
+        }
+        emit(RETURN);
+        for (var fixup : fixups.entrySet()) {
+            var target = labels.get(fixup.getValue());
+            if (target == null) {
+                throw new RuntimeException("Unknown label " + fixup.getValue() + "!");
+            }
+            code[fixup.getKey()] = target;
+        }
+        return new Bytecode.Function(chunk.frame, Arrays.copyOf(code, length), maxRegisters);
+    }
+
+    // ----------- stavki -----------
+
+    private void generate(IRStmt stmt) {
+        if (stmt instanceof CJumpStmt cjump) {
+            var condition = generate(cjump.condition);
+            emit(CJUMP, condition);
+            emitLabel(cjump.thenLabel);
+            emitLabel(cjump.elseLabel);
+        } else if (stmt instanceof ExpStmt exp) {
+            generate(exp.expr);
+        } else if (stmt instanceof JumpStmt jump) {
+            emit(JUMP);
+            emitLabel(jump.label);
+        } else if (stmt instanceof LabelStmt label) {
+            labels.put(label.label, length);
+        } else if (stmt instanceof MoveStmt move) {
+            generate(move);
+        } else {
+            throw new RuntimeException("Cannot generate code for this statement!");
+        }
+    }
+
+    private void generate(MoveStmt move) {
+        if (move.dst instanceof TempExpr temp) {
+            generateInto(move.src, temp.temp.id);
+        } else if (move.dst instanceof MemExpr mem) {
+            var source = generate(move.src);
+            var offset = frameOffset(mem.expr);
+            if (offset != null) {
+                emit(STOREFP, offset, source);
+            } else {
+                emit(STORE, generate(mem.expr), source);
+            }
+        } else {
+            throw new RuntimeException("Invalid move destination!");
+        }
+    }
+
+    // ----------- izrazi -----------
+
+    /**
+     * Prevede izraz in vrne register, v katerem je njegova vrednost.
+     */
+    private int generate(IRExpr expr) {
+        if (expr instanceof TempExpr temp) {
+            return temp.temp.id;
+        }
+        var register = nextRegister++;
+        maxRegisters = Math.max(maxRegisters, nextRegister);
+        generateInto(expr, register);
+        return register;
+    }
+
+    /**
+     * Prevede izraz tako, da se njegova vrednost shrani v register `dst`.
+     */
+    private void generateInto(IRExpr expr, int dst) {
+        if (expr instanceof BinopExpr binop) {
+            var lhs = generate(binop.lhs);
+            var rhs = generate(binop.rhs);
+            emit(opcode(binop.op), dst, lhs, rhs);
+        } else if (expr instanceof CallExpr call) {
+            generateInto(call, dst);
+        } else if (expr instanceof ConstantExpr constant) {
+            emit(CONST, dst, constant.constant);
+        } else if (expr instanceof EseqExpr) {
+            throw new RuntimeException("Cannot generate code for ESEQ; linearize IRCode!");
+        } else if (expr instanceof MemExpr mem) {
+            var offset = frameOffset(mem.expr);
+            if (offset != null) {
+                emit(LOADFP, dst, offset);
+            } else {
+                emit(LOAD, dst, generate(mem.expr));
+            }
+        } else if (expr instanceof NameExpr name) {
+            if (name.label.name().equals(Constants.framePointer)) {
+                emit(FP, dst);
+            } else if (name.label.name().equals(Constants.stackPointer)) {
+                emit(SP, dst);
+            } else {
+                emit(CONST, dst, memory.address(name.label));
+            }
+        } else if (expr instanceof TempExpr temp) {
+            emit(MOVE, dst, temp.temp.id);
+        } else {
+            throw new IllegalArgumentException("Unknown expr type");
+        }
+    }
+
+    private void generateInto(CallExpr call, int dst) {
+        var name = call.label.name();
+        if (name.equals(Constants.printIntLabel)) {
+            checkArgumentCount(call, 2);
+            emit(PRINT_INT, generate(call.args.get(1)));
+            emit(CONST, dst, 0);
+        } else if (name.equals(Constants.printStringLabel)) {
+            checkArgumentCount(call, 2);
+            emit(PRINT_STR, generate(call.args.get(1)));
+            emit(CONST, dst, 0);
+        } else if (name.equals(Constants.printLogLabel)) {
+            checkArgumentCount(call, 2);
+            emit(PRINT_LOG, generate(call.args.get(1)));
+            emit(CONST, dst, 0);
+        } else if (name.equals(Constants.randIntLabel)) {
+            checkArgumentCount(call, 3);
+            emit(RAND_INT, dst, generate(call.args.get(1)), generate(call.args.get(2)));
+        } else if (name.equals(Constants.seedLabel)) {
+            checkArgumentCount(call, 2);
+            emit(SEED, generate(call.args.get(1)));
+            emit(CONST, dst, 0);
+        } else if (memory.ldM(call.label) instanceof CodeChunk chunk) {
+            var args = new int[call.args.size()];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = generate(call.args.get(i));
+            }
+            emit(CALL, dst, functionIndex(chunk), args.length);
+            for (var arg : args) {
+                emit(arg);
+            }
+        } else {
+            throw new RuntimeException("Only functions can be called!");
+        }
+    }
+
+    // ----------- pomožne funkcije -----------
+
+    /**
+     * Če je izraz oblike `FP + konstanta`, vrne konstanto.
+     */
+    private Integer frameOffset(IRExpr expr) {
+        if (expr instanceof BinopExpr binop && binop.op == BinopExpr.Operator.ADD
+                && binop.lhs instanceof NameExpr name && name.label.name().equals(Constants.framePointer)
+                && binop.rhs instanceof ConstantExpr constant) {
+            return constant.constant;
+        }
+        return null;
+    }
+
+    private int opcode(BinopExpr.Operator op) {
+        switch (op) {
+            case ADD: return ADD;
+            case SUB: return SUB;
+            case MUL: return MUL;
+            case DIV: return DIV;
+            case MOD: return MOD;
+            case AND: return AND;
+            case OR: return OR;
+            case EQ: return EQ;
+            case NEQ: return NEQ;
+            case LT: return LT;
+            case GT: return GT;
+            case LEQ: return LEQ;
+            case GEQ: return GEQ;
+            default:
+                throw new RuntimeException("Invalid binary operator!");
+        }
+    }
+
+    private void checkArgumentCount(CallExpr call, int count) {
+        if (call.args.size() != count) {
+            throw new RuntimeException("Invalid argument count!");
+        }
+    }
+
+    private void emitLabel(Frame.Label label) {
+        fixups.put(length, label);
+        emit(-1);
+    }
+
+    private void emit(int... words) {
+        if (length + words.length > code.length) {
+            code = Arrays.copyOf(code, Math.max(code.length * 2, length + words.length));
+        }
+        for (var word : words) {
+            code[length++] = word;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * @ Author: turk
+ * @ Description: Linearizacija kode enega fragmenta.
+ */
+
+package compiler.gen;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import compiler.frm.Frame;
+import compiler.ir.chunk.Chunk;
+import compiler.ir.code.expr.*;
+import compiler.ir.code.stmt.*;
+
+/**
+ * Linearizacija je odvisna le od kode fragmenta, zato ima vsak fragment
+ * svoj `ChunkLinearizer` in se lahko linearizira vzporedno z drugimi.
+ *
+ * Vsi stavki fragmenta se dodajajo v en izhodni seznam (`statements`):
+ * linearizacija izraza stranske učinke doda v seznam in vrne izraz brez
+ * njih, zato vmesnih `SeqStmt`/`EseqExpr` in kopij seznamov ni.
+ * Vozlišča, katerih podizrazi se ne spremenijo, se uporabijo nespremenjena.
+ */
+class ChunkLinearizer {
+    /**
+     * Število začasnih spremenljivk fragmenta.
+     */
+    private int tempCount = 0;
+
+    /**
+     * Preslikava iz začasnih spremenljivk vhodne kode v lokalne
+     * začasne spremenljivke fragmenta.
+     */
+    private final Map<Frame.Temp, TempExpr> renamedTemps = new HashMap<>();
+
+    /**
+     * Linearizirani stavki fragmenta.
+     */
+    private final List<IRStmt> statements = new ArrayList<>();
+
+    /**
+     * Lineariziraj kodo fragmenta.
+     */
+    Chunk.CodeChunk linearize(Chunk.CodeChunk chunk) {
+        linearize(chunk.code);
+        return new Chunk.CodeChunk(chunk.frame, new SeqStmt(statements), tempCount);
+    }
+
+    /**
+     * Ustvari novo lokalno začasno spremenljivko.
+     */
+    private Frame.Temp nextTemp() {
+        return Frame.Temp.local(tempCount++);
+    }
+
+    /**
+     * Stranske učinke izraza doda v `statements` in vrne izraz brez njih.
+     */
+    private IRExpr linearize(IRExpr expr) {
+        if (expr instanceof BinopExpr binopExpr) {
+            return linearize(binopExpr);
+        } else if (expr instanceof CallExpr callExpr) {
+            return linearize(callExpr);
+        } else if (expr instanceof ConstantExpr constantExpr) {
+            return constantExpr;
+        } else if (expr instanceof EseqExpr eseqExpr) {
+            return linearize(eseqExpr);
+        } else if (expr instanceof MemExpr memExpr) {
+            return linearize(memExpr);
+        } else if (expr instanceof NameExpr nameExpr) {
+            return nameExpr;
+        } else if (expr instanceof TempExpr tempExpr) {
+            return linearize(tempExpr);
+        } else {
+            throw new IllegalArgumentException("Unknown expr type");
+        }
+    }
+
+    /**
+     * Doda linearizirane stavke v `statements`.
+     */
+    private void linearize(IRStmt stmt) {
+        if (stmt instanceof CJumpStmt cJumpStmt) {
+            linearize(cJumpStmt);
+        } else if (stmt instanceof ExpStmt expStmt) {
+            linearize(expStmt);
+        } else if (stmt instanceof JumpStmt jumpStmt) {
+            statements.add(jumpStmt);
+        } else if (stmt instanceof LabelStmt labelStmt) {
+            statements.add(labelStmt);
+        } else if (stmt instanceof MoveStmt moveStmt) {
+            linearize(moveStmt);
+        } else if (stmt instanceof SeqStmt seqStmt) {
+            for (var statement : seqStmt.statements) {
+                linearize(statement);
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown expr type");
+        }
+    }
+
+    private IRExpr linearize(BinopExpr binop) {
+        var lhs = linearize(binop.lhs);
+        var rhs = linearize(binop.rhs);
+        if (lhs == binop.lhs && rhs == binop.rhs) {
+            return binop;
+        }
+        return new BinopExpr(lhs, rhs, binop.op);
+    }
+
+    private IRExpr linearize(CallExpr call) {
+        var args = new ArrayList<IRExpr>(call.args.size());
+        for (var arg : call.args) {
+            var linArg = linearize(arg);
+            var temp = new TempExpr(nextTemp());
+            statements.add(new MoveStmt(temp, linArg));
+            args.add(temp);
+        }
+        var resultTemp = new TempExpr(nextTemp());
+        statements.add(new MoveStmt(resultTemp, new CallExpr(call.label, args)));
+        return resultTemp;
+    }
+
+    private IRExpr linearize(EseqExpr eseq) {
+        linearize(eseq.stmt);
+        return linearize(eseq.expr);
+    }
+
+    private IRExpr linearize(MemExpr mem) {
+        var linExpr = linearize(mem.expr);
+        if (linExpr == mem.expr) {
+            return mem;
+        }
+        return new MemExpr(linExpr);
+    }
+
+    private IRExpr linearize(TempExpr temp) {
+        return renamedTemps.computeIfAbsent(temp.temp, __ -> new TempExpr(nextTemp()));
+    }
+
+    private void linearize(CJumpStmt cjump) {
+        var linCond = linearize(cjump.condition);
+        if (linCond == cjump.condition) {
+            statements.add(cjump);
+        } else {
+            statements.add(new CJumpStmt(linCond, cjump.thenLabel, cjump.elseLabel));
+        }
+    }
+
+    private void linearize(ExpStmt exp) {
+        var linExpr = linearize(exp.expr);
+        if (linExpr == exp.expr) {
+            statements.add(exp);
+        } else {
+            statements.add(new ExpStmt(linExpr));
+        }
+    }
+
+    private void linearize(MoveStmt move) {
+        var linDst = linearize(move.dst);
+        var linSrc = linearize(move.src);
+        if (linDst == move.dst && linSrc == move.src) {
+            statements.add(move);
+        } else {
+            statements.add(new MoveStmt(linDst, linSrc));
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/**
+ * @ Author: turk
+ * @ Description: Pomnilnik izven kopice, preslikan v datoteko.
+ */
+
+package compiler.gen;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import common.Constants;
+
+/**
+ * Besede pomnilnika (4 bajti) so zapisane neposredno v datoteko,
+ * preslikano v pomnilnik, tako da velik pomnilnik navideznega stroja
+ * ne obremenjuje kopice in zbiralnika smeti.
+ *
+ * Datoteka je sestavljena iz dveh delov:
+ * 1. besede (`(size / WordSize + 1) * WordSize` bajtov),
+ * 2. vrste celic (en bajt za vsako besedo).
+ *
+ * En `MappedByteBuffer` obsega največ 2 GiB, zato so besede preslikane
+ * v več regij po `REGION_SIZE` bajtov; tako je lahko pomnilnik velik
+ * do `Memory.MAX_SIZE` (4 GiB).
+ *
+ * Vrednosti, ki niso cela števila (fragmenti kode, nizi), hranimo
+ * v ločeni preslikavi na kopici in niso del datoteke.
+ */
+public class MappedMemory extends Memory {
+    /**
+     * Vrste pomnilniških celic.
+     */
+    private static final byte EMPTY = 0;
+    private static final byte INT = 1;
+    private static final byte OBJECT = 2;
+
+    /**
+     * Velikost regije besed v bajtih (večkratnik velikosti besede).
+     */
+    private static final int REGION_BITS = 30;
+    private static final long REGION_SIZE = 1L << REGION_BITS;
+
+    /**
+     * Vsebina celic, ki hranijo cela števila, po regijah.
+     */
+    private final MappedByteBuffer[] words;
+
+    /**
+     * Vrsta vsake celice (`EMPTY`, `INT` ali `OBJECT`).
+     */
+    private final MappedByteBuffer kinds;
+
+    /**
+     * Vsebina celic, ki ne hranijo celih števil.
+     */
+    private Map<Integer, Object> objects = new HashMap<>();
+
+    /**
+     * Ustvari nov pomnilnik.
+     *
+     * @param size velikost pomnilnika v bajtih
+     * @param snapshot datoteka, v kateri po izvajanju ostane vsebina pomnilnika.
+     *                 Če ni podana, se uporabi začasna datoteka, ki se
+     *                 izbriše že ob ustvarjanju pomnilnika.
+     */
+    public MappedMemory(long size, Optional<Path> snapshot) throws IOException {
+        super(size);
+        long wordCount = size / Constants.WordSize + 1;
+        long wordsSize = wordCount * Constants.WordSize;
+        this.words = new MappedByteBuffer[(int) ((wordsSize + REGION_SIZE - 1) / REGION_SIZE)];
+        var options = EnumSet.of(StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        if (snapshot.isEmpty()) {
+            // Preslikava ostane veljavna tudi, ko datoteke ni več, zato
+            // začasno datoteko izbrišemo takoj, ko je preslikana.
+            options.add(StandardOpenOption.DELETE_ON_CLOSE);
+        }
+        var file = snapshot.isPresent()
+                ? snapshot.get()
+                : Files.createTempFile("pins-memory", ".bin");
+        try (var channel = FileChannel.open(file, options)) {
+            for (int region = 0; region < words.length; region++) {
+                long start = region * REGION_SIZE;
+                words[region] = channel.map(FileChannel.MapMode.READ_WRITE, start, Math.min(REGION_SIZE, wordsSize - start));
+                words[region].order(ByteOrder.nativeOrder());
+            }
+            this.kinds = channel.map(FileChannel.MapMode.READ_WRITE, wordsSize, wordCount);
+        }
+    }
+
+    @Override
+    public void stM(int address, Object value) {
+        if (value instanceof Integer integer) {
+            stI(address, integer);
+        } else if (value instanceof Boolean bool) {
+            stI(address, bool ? 1 : 0);
+        } else {
+            validateAddress(address);
+            objects.put(address, value);
+            kinds.put(wordIndex(address), OBJECT);
+        }
+    }
+
+    @Override
+    public void stI(int address, int value) {
+        validateAddress(address);
+        var index = wordIndex(address);
+        if (kinds.get(index) == OBJECT) {
+            objects.remove(address);
+        }
+        region(address).putInt(offset(address), value);
+        kinds.put(index, INT);
+    }
+
+    @Override
+    public Object ldM(int address) {
+        validateAddress(address);
+        switch (kinds.get(wordIndex(address))) {
+            case INT:
+                return region(address).getInt(offset(address));
+            case OBJECT:
+                return objects.get(address);
+            default:
+                throw new IllegalArgumentException("Empty address " + address + "!");
+        }
+    }
+
+    @Override
+    public int ldI(int address) {
+        validateAddress(address);
+        var index = wordIndex(address);
+        if (kinds.get(index) == INT) {
+            return region(address).getInt(offset(address));
+        }
+        return super.ldI(address);
+    }
+
+    /**
+     * Regija, v kateri je podan (nepredznačen) naslov.
+     */
+    private MappedByteBuffer region(int address) {
+        return words[(int) (Integer.toUnsignedLong(address) >>> REGION_BITS)];
+    }
+
+    /**
+     * Odmik naslova v njegovi regiji.
+     */
+    private static int offset(int address) {
+        return (int) (Integer.toUnsignedLong(address) & (REGION_SIZE - 1));
+    }
+
+    /**
+     * Zapiše vsebino pomnilnika v datoteko.
+     */
+    public void flush() {
+        for (var region : words) {
+            region.force();
+        }
+        kinds.force();
+    }
+
+    @Override
+    protected Map<Integer, Object> contents() {
+        var contents = new HashMap<Integer, Object>(objects);
+        for (int index = 0; index < kinds.capacity(); index++) {
+            if (kinds.get(index) == INT) {
+                var address = index * Constants.WordSize;
+                contents.put(address, region(address).getInt(offset(address)));
+            }
+        }
+        return contents;
+    }
+}
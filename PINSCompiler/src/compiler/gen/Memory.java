@@ -12,16 +12,18 @@ import java.util.stream.Collectors;
 import common.Constants;
 import compiler.frm.Frame;
 
-public class Memory {
+public abstract class Memory {
     /**
-     * Velikost pomnilnika v bajtih.
+     * Največja velikost pomnilnika v bajtih. Naslovi so 32-bitni in se
+     * obravnavajo kot nepredznačena števila, naslov `size` pa mora biti
+     * še veljaven (argument funkcije `main`).
      */
-    public final int size;
+    public static final long MAX_SIZE = (1L << 32) - Constants.WordSize;
 
     /**
-     * Emulator pomnilnika - preslikava iz naslovov v vrednosti poljubnih tipov.
+     * Velikost pomnilnika v bajtih.
      */
-    private Map<Integer, Object> memory = new HashMap<>();
+    public final long size;
 
     /**
      * Začasne spremenljivke ('registri').
@@ -33,29 +35,36 @@ public class Memory {
      */
     private Map<Frame.Label, Integer> labelToAddressMapping = new HashMap<>();
 
-    public Memory(int size) {
+    public Memory(long size) {
+        if (size < Constants.WordSize || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Memory size " + size + " out of range!");
+        }
         this.size = size;
     }
 
     /**
      * Na podan naslov shrani vrednost.
      */
-    public void stM(int address, Object value) {
-        validateAddress(address);
-        memory.put(address, value);
-    }
+    public abstract void stM(int address, Object value);
 
     /**
      * Na podano imenovano lokacijo shrani vrednost.
      */
     public void stM(Frame.Label label, Object value) {
         if (labelToAddressMapping.containsKey(label)) {
-            memory.put(address(label), value);
+            stM(address(label), value);
         } else {
             throw new IllegalArgumentException("Unknown label!");
         }
     }
 
+    /**
+     * Na podan naslov shrani celo število.
+     */
+    public void stI(int address, int value) {
+        stM(address, value);
+    }
+
     /**
      * V podan register shrani vrednost.
      */
@@ -66,12 +75,19 @@ public class Memory {
     /**
      * Preberi vrednost iz podanega naslova.
      */
-    public Object ldM(int address) {
-        validateAddress(address);
-        if (memory.containsKey(address)) {
-            return memory.get(address);
+    public abstract Object ldM(int address);
+
+    /**
+     * Preberi celo število iz podanega naslova.
+     */
+    public int ldI(int address) {
+        var value = ldM(address);
+        if (value instanceof Integer integer) {
+            return integer;
+        } else if (value instanceof Boolean bool) {
+            return bool ? 1 : 0;
         }
-        throw new IllegalArgumentException("Empty address " + address + "!");
+        throw new IllegalArgumentException("Address " + address + " does not hold an integer!");
     }
 
     /**
@@ -80,7 +96,7 @@ public class Memory {
     public Object ldM(Frame.Label label) {
         if (labelToAddressMapping.containsKey(label)) {
             var address = labelToAddressMapping.get(label);
-            return memory.get(address);
+            return ldM(address);
         }
         throw new IllegalArgumentException("Empty address for label " + label.toString() + "!");
     }
@@ -110,6 +126,11 @@ public class Memory {
         return labelToAddressMapping.get(label);
     }
 
+    /**
+     * Vrne vse zapisane pomnilniške celice (preslikava iz naslovov v vrednosti).
+     */
+    protected abstract Map<Integer, Object> contents();
+
     @Override
     public String toString() {
         var sb = new StringBuilder();
@@ -123,17 +144,28 @@ public class Memory {
         if (!tempsStr.isEmpty()) {
             sb.append("\n");
         }
-        var memStr = memory.entrySet().stream()
-            .sorted((o1, o2) -> o2.getKey() - o1.getKey())
-            .map(entry -> entry.getKey().toString() + ": " + entry.getValue().toString())
+        var memStr = contents().entrySet().stream()
+            .sorted((o1, o2) -> Integer.compareUnsigned(o2.getKey(), o1.getKey()))
+            .map(entry -> Integer.toUnsignedString(entry.getKey()) + ": " + entry.getValue().toString())
             .collect(Collectors.joining("\n"));
         sb.append(memStr);
         return sb.toString();
     }
 
-    private void validateAddress(int address) {
+    /**
+     * Indeks besede na podanem naslovu (naslov je nepredznačen).
+     */
+    public static int wordIndex(int address) {
+        return Integer.divideUnsigned(address, Constants.WordSize);
+    }
+
+    /**
+     * Preveri, ali je podan naslov veljaven (znotraj pomnilnika, različen
+     * od 0 in poravnan); sicer vrže `IllegalArgumentException`.
+     */
+    public void validateAddress(int address) {
         // if debugMode
-        if (address > size) {
+        if (Integer.toUnsignedLong(address) > size) {
             throw new IllegalArgumentException("Address " + address + " out of bounds!");
         }
         if (address == 0) {
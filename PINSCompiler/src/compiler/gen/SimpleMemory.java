@@ -0,0 +1,40 @@
+/**
+ * @ Author: turk
+ * @ Description: Preprosta implementacija pomnilnika (razpršena tabela).
+ */
+
+package compiler.gen;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class SimpleMemory extends Memory {
+    /**
+     * Emulator pomnilnika - preslikava iz naslovov v vrednosti poljubnih tipov.
+     */
+    private Map<Integer, Object> memory = new HashMap<>();
+
+    public SimpleMemory(long size) {
+        super(size);
+    }
+
+    @Override
+    public void stM(int address, Object value) {
+        validateAddress(address);
+        memory.put(address, value);
+    }
+
+    @Override
+    public Object ldM(int address) {
+        validateAddress(address);
+        if (memory.containsKey(address)) {
+            return memory.get(address);
+        }
+        throw new IllegalArgumentException("Empty address " + address + "!");
+    }
+
+    @Override
+    protected Map<Integer, Object> contents() {
+        return memory;
+    }
+}
@@ -0,0 +1,225 @@
+/**
+ * @ Author: turk
+ * @ Description: Navidezni stroj za registrsko zlogovno kodo.
+ */
+
+package compiler.interpret;
+
+import static common.RequireNonNull.requireNonNull;
+import static compiler.gen.Bytecode.*;
+
+import java.io.PrintStream;
+import java.util.Optional;
+import java.util.Random;
+
+import common.Constants;
+import compiler.gen.Bytecode;
+import compiler.gen.Memory;
+
+public class BytecodeInterpreter {
+    /**
+     * Pomnilnik navideznega stroja.
+     */
+    private Memory memory;
+
+    /**
+     * Izhodni tok, kamor izpisujemo rezultate izvajanja programa.
+     *
+     * V primeru, da rezultatov ne želimo izpisovati, nastavimo na `Optional.empty()`.
+     */
+    private Optional<PrintStream> outputStream;
+
+    /**
+     * Generator naključnih števil.
+     */
+    private Random random;
+
+    /**
+     * Skladovni kazalec (kaže na dno sklada).
+     */
+    private int stackPointer;
+
+    /**
+     * Klicni kazalec (kaže na vrh aktivnega klicnega zapisa).
+     */
+    private int framePointer;
+
+    /**
+     * Funkcije programa.
+     */
+    private Bytecode.Function[] functions;
+
+    public BytecodeInterpreter(Memory memory, Optional<PrintStream> outputStream) {
+        requireNonNull(memory, outputStream);
+        this.memory = memory;
+        this.outputStream = outputStream;
+        this.stackPointer = (int) (memory.size - Constants.WordSize);
+        this.framePointer = (int) (memory.size - Constants.WordSize);
+    }
+
+    // --------- izvajanje navideznega stroja ----------
+
+    public void interpret(Bytecode.Program program) {
+        functions = program.functions.toArray(new Bytecode.Function[0]);
+        var main = functions[program.main];
+        memory.stI(framePointer + Constants.WordSize, 999); // argument v funkcijo main
+        memory.stI(framePointer - main.frame.oldFPOffset(), framePointer); // oldFP
+        execute(main);
+    }
+
+    private void execute(Bytecode.Function function) {
+        int oldFP = framePointer;
+        int oldSP = stackPointer;
+        framePointer = stackPointer;
+        stackPointer = framePointer - function.frame.size();
+
+        final int[] code = function.code;
+        final int[] r = new int[function.registers];
+        final int fp = framePointer;
+        int pc = 0;
+        while (true) {
+            switch (code[pc]) {
+                case CONST:
+                    r[code[pc + 1]] = code[pc + 2];
+                    pc += 3;
+                    break;
+                case MOVE:
+                    r[code[pc + 1]] = r[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case FP:
+                    r[code[pc + 1]] = fp;
+                    pc += 2;
+                    break;
+                case SP:
+                    r[code[pc + 1]] = stackPointer;
+                    pc += 2;
+                    break;
+                case LOAD:
+                    r[code[pc + 1]] = memory.ldI(r[code[pc + 2]]);
+                    pc += 3;
+                    break;
+                case STORE:
+                    memory.stI(r[code[pc + 1]], r[code[pc + 2]]);
+                    pc += 3;
+                    break;
+                case LOADFP:
+                    r[code[pc + 1]] = memory.ldI(fp + code[pc + 2]);
+                    pc += 3;
+                    break;
+                case STOREFP:
+                    memory.stI(fp + code[pc + 1], r[code[pc + 2]]);
+                    pc += 3;
+                    break;
+                case ADD:
+                    r[code[pc + 1]] = r[code[pc + 2]] + r[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case SUB:
+                    r[code[pc + 1]] = r[code[pc + 2]] - r[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case MUL:
+                    r[code[pc + 1]] = r[code[pc + 2]] * r[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case DIV:
+                    r[code[pc + 1]] = r[code[pc + 2]] / r[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case MOD:
+                    r[code[pc + 1]] = r[code[pc + 2]] % r[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case AND:
+                    r[code[pc + 1]] = toInt(r[code[pc + 2]] == 1 && r[code[pc + 3]] == 1);
+                    pc += 4;
+                    break;
+                case OR:
+                    r[code[pc + 1]] = toInt(r[code[pc + 2]] == 1 || r[code[pc + 3]] == 1);
+                    pc += 4;
+                    break;
+                case EQ:
+                    r[code[pc + 1]] = toInt(r[code[pc + 2]] == r[code[pc + 3]]);
+                    pc += 4;
+                    break;
+                case NEQ:
+                    r[code[pc + 1]] = toInt(r[code[pc + 2]] != r[code[pc + 3]]);
+                    pc += 4;
+                    break;
+                case LT:
+                    r[code[pc + 1]] = toInt(r[code[pc + 2]] < r[code[pc + 3]]);
+                    pc += 4;
+                    break;
+                case GT:
+                    r[code[pc + 1]] = toInt(r[code[pc + 2]] > r[code[pc + 3]]);
+                    pc += 4;
+                    break;
+                case LEQ:
+                    r[code[pc + 1]] = toInt(r[code[pc + 2]] <= r[code[pc + 3]]);
+                    pc += 4;
+                    break;
+                case GEQ:
+                    r[code[pc + 1]] = toInt(r[code[pc + 2]] >= r[code[pc + 3]]);
+                    pc += 4;
+                    break;
+                case JUMP:
+                    pc = code[pc + 1];
+                    break;
+                case CJUMP:
+                    pc = r[code[pc + 1]] == 1 ? code[pc + 2] : code[pc + 3];
+                    break;
+                case CALL: {
+                    var argc = code[pc + 3];
+                    var offset = stackPointer;
+                    for (int i = 0; i < argc; i++) {
+                        memory.stI(offset, r[code[pc + 4 + i]]);
+                        offset += Constants.WordSize;
+                    }
+                    execute(functions[code[pc + 2]]);
+                    r[code[pc + 1]] = memory.ldI(stackPointer);
+                    pc += 4 + argc;
+                    break;
+                }
+                case RETURN:
+                    framePointer = oldFP;
+                    stackPointer = oldSP;
+                    return;
+                case PRINT_INT: {
+                    var arg = r[code[pc + 1]];
+                    outputStream.ifPresent(stream -> stream.println(arg));
+                    pc += 2;
+                    break;
+                }
+                case PRINT_STR: {
+                    var res = memory.ldM(r[code[pc + 1]]);
+                    outputStream.ifPresent(stream -> stream.println("\"" + res + "\""));
+                    pc += 2;
+                    break;
+                }
+                case PRINT_LOG: {
+                    var arg = r[code[pc + 1]] == 1;
+                    outputStream.ifPresent(stream -> stream.println(arg));
+                    pc += 2;
+                    break;
+                }
+                case RAND_INT:
+                    r[code[pc + 1]] = random.nextInt(r[code[pc + 2]], r[code[pc + 3]]);
+                    pc += 4;
+                    break;
+                case SEED:
+                    random = new Random(r[code[pc + 1]]);
+                    pc += 2;
+                    break;
+                default:
+                    throw new RuntimeException("Invalid opcode " + code[pc] + "!");
+            }
+        }
+    }
+
+    // ----------- pomožne funkcije -----------
+
+    private static int toInt(boolean bool) {
+        return bool ? 1 : 0;
+    }
+}
@@ -51,42 +51,60 @@ public class Interpreter {
      */
     private int framePointer;
 
+    /**
+     * Tabele skokov - za vsak fragment kode preslikava iz label v indekse stavkov.
+     */
+    private Map<CodeChunk, Map<Frame.Label, Integer>> jumpTables = new HashMap<>();
+
+    /**
+     * Zaloga registrskih datotek (začasnih spremenljivk) - po ena za vsako globino klicev.
+     *
+     * Vse vrednosti jezika PINS so predstavljene kot cela števila
+     * (logične vrednosti kot 0 oz. 1, nizi z naslovom).
+     */
+    private List<int[]> registerFiles = new ArrayList<>();
+
+    /**
+     * Trenutna globina klicev.
+     */
+    private int callDepth = 0;
+
     public Interpreter(Memory memory, Optional<PrintStream> outputStream) {
         requireNonNull(memory, outputStream);
         this.memory = memory;
         this.outputStream = outputStream;
-        this.stackPointer = memory.size - Constants.WordSize;
-        this.framePointer = memory.size - Constants.WordSize;
+        this.stackPointer = (int) (memory.size - Constants.WordSize);
+        this.framePointer = (int) (memory.size - Constants.WordSize);
     }
 
     // --------- izvajanje navideznega stroja ----------
 
     public void interpret(CodeChunk chunk) {
-        memory.stM(framePointer + Constants.WordSize, 999); // argument v funkcijo main
-        memory.stM(framePointer - chunk.frame.oldFPOffset(), framePointer); // oldFP
-        internalInterpret(chunk, new HashMap<>());
+        memory.stI(framePointer + Constants.WordSize, 999); // argument v funkcijo main
+        memory.stI(framePointer - chunk.frame.oldFPOffset(), framePointer); // oldFP
+        internalInterpret(chunk);
     }
 
-    private void internalInterpret(CodeChunk chunk, Map<Frame.Temp, Object> temps) {
+    private void internalInterpret(CodeChunk chunk) {
         // @TODO: Nastavi FP in SP na nove vrednosti!
 
+        var temps = acquireRegisters(chunk.temps);
         int oldFP = framePointer;
         int oldSP = stackPointer;
         framePointer = stackPointer;
         stackPointer = framePointer - chunk.frame.size();
 
-        Object result = null;
         if (chunk.code instanceof SeqStmt seq) {
+            var jumpTable = jumpTable(chunk, seq);
             for (int pc = 0; pc < seq.statements.size(); pc++) {
                 var stmt = seq.statements.get(pc);
-                result = execute(stmt, temps);
-                if (result instanceof Frame.Label label) {
-                    for (int q = 0; q < seq.statements.size(); q++) {
-                        if (seq.statements.get(q) instanceof LabelStmt labelStmt && labelStmt.label.equals(label)) {
-                            pc = q;
-                            break;
-                        }
+                var label = execute(stmt, temps);
+                if (label != null) {
+                    var target = jumpTable.get(label);
+                    if (target == null) {
+                        throw new RuntimeException("Unknown label " + label + "!");
                     }
+                    pc = target;
                 }
             }
         } else {
@@ -97,81 +115,115 @@ public class Interpreter {
 
         framePointer = oldFP;
         stackPointer = oldSP;
+        releaseRegisters();
     }
 
-    private Object execute(IRStmt stmt, Map<Frame.Temp, Object> temps) {
+    /**
+     * Vrne registrsko datoteko za trenutno globino klicev.
+     *
+     * Datoteke se ponovno uporabijo; ker linearizirana koda vsako začasno
+     * spremenljivko najprej zapiše in šele nato prebere, jih ni treba čistiti.
+     */
+    private int[] acquireRegisters(int count) {
+        if (callDepth == registerFiles.size()) {
+            registerFiles.add(new int[count]);
+        }
+        var registers = registerFiles.get(callDepth);
+        if (registers.length < count) {
+            registers = new int[count];
+            registerFiles.set(callDepth, registers);
+        }
+        callDepth++;
+        return registers;
+    }
+
+    private void releaseRegisters() {
+        callDepth--;
+    }
+
+    /**
+     * Vrne tabelo skokov za podan fragment kode.
+     *
+     * Tabela se zgradi ob prvem izvajanju fragmenta, nato pa
+     * se uporablja shranjena različica.
+     */
+    private Map<Frame.Label, Integer> jumpTable(CodeChunk chunk, SeqStmt seq) {
+        var jumpTable = jumpTables.get(chunk);
+        if (jumpTable == null) {
+            jumpTable = new HashMap<>();
+            for (int pc = 0; pc < seq.statements.size(); pc++) {
+                if (seq.statements.get(pc) instanceof LabelStmt labelStmt) {
+                    jumpTable.put(labelStmt.label, pc);
+                }
+            }
+            jumpTables.put(chunk, jumpTable);
+        }
+        return jumpTable;
+    }
+
+    /**
+     * Izvede stavek.
+     *
+     * @return labela, na katero je treba skočiti, oz. `null`, če se izvajanje nadaljuje z naslednjim stavkom.
+     */
+    private Frame.Label execute(IRStmt stmt, int[] temps) {
         if (stmt instanceof CJumpStmt cjump) {
             return execute(cjump, temps);
         } else if (stmt instanceof ExpStmt exp) {
-            return execute(exp, temps);
+            execute(exp.expr, temps);
+            return null;
         } else if (stmt instanceof JumpStmt jump) {
-            return execute(jump, temps);
+            return jump.label;
         } else if (stmt instanceof LabelStmt label) {
             return null;
         } else if (stmt instanceof MoveStmt move) {
-            return execute(move, temps);
+            execute(move, temps);
+            return null;
         } else {
             throw new RuntimeException("Cannot execute this statement!");
         }
     }
 
-    private Object execute(CJumpStmt cjump, Map<Frame.Temp, Object> temps) {
-        var res = execute(cjump.condition, temps);
-        if (res instanceof Integer x){
-            return x == 1 ? cjump.thenLabel : cjump.elseLabel;
-        } else if ((Boolean) res) {
-            return cjump.thenLabel;
-
-        } else{
-            return cjump.elseLabel;
-        }
+    private Frame.Label execute(CJumpStmt cjump, int[] temps) {
+        var condition = execute(cjump.condition, temps);
+        return toBool(condition) ? cjump.thenLabel : cjump.elseLabel;
     }
 
-    private Object execute(ExpStmt exp, Map<Frame.Temp, Object> temps) {
-
-        return execute(exp.expr, temps);
-    }
-
-    private Object execute(JumpStmt jump, Map<Frame.Temp, Object> temps) {
-        return jump.label;
-    }
-
-    private Object execute(MoveStmt move, Map<Frame.Temp, Object> temps) {
+    private void execute(MoveStmt move, int[] temps) {
         var source = execute(move.src, temps);
         if (move.dst instanceof MemExpr destMem) {
-            var address = toInt(execute(destMem.expr,temps));
-            memory.stM(address, source);
+            var address = execute(destMem.expr, temps);
+            memory.stI(address, source);
         } else if (move.dst instanceof TempExpr temp) {
-            temps.put(temp.temp, source);
+            temps[temp.temp.id] = source;
         } else {
             throw new RuntimeException("Invalid move destination!");
         }
-        return source;
     }
 
-    private Object execute(IRExpr expr, Map<Frame.Temp, Object> temps) {
+    private int execute(IRExpr expr, int[] temps) {
         if (expr instanceof BinopExpr binopExpr) {
             return execute(binopExpr, temps);
         } else if (expr instanceof CallExpr callExpr) {
             return execute(callExpr, temps);
         } else if (expr instanceof ConstantExpr constantExpr) {
-            return execute(constantExpr);
+            return constantExpr.constant;
         } else if (expr instanceof EseqExpr eseqExpr) {
             throw new RuntimeException("Cannot execute ESEQ; linearize IRCode!");
         } else if (expr instanceof MemExpr memExpr) {
-            return execute(memExpr, temps);
+            return memory.ldI(execute(memExpr.expr, temps));
         } else if (expr instanceof NameExpr nameExpr) {
             return execute(nameExpr);
         } else if (expr instanceof TempExpr tempExpr) {
-            return execute(tempExpr, temps);
+            return temps[tempExpr.temp.id];
         } else {
             throw new IllegalArgumentException("Unknown expr type");
         }
     }
 
-    private Object execute(BinopExpr binop, Map<Frame.Temp, Object> temps) {
-        var left = toInt(execute(binop.lhs,temps));
-        var right = toInt(execute(binop.rhs,temps));
+    private int execute(BinopExpr binop, int[] temps) {
+        var left = execute(binop.lhs, temps);
+        var right = execute(binop.rhs, temps);
         switch (binop.op) {
             case ADD:
                 return left + right;
@@ -184,114 +236,81 @@ public class Interpreter {
             case MOD:
                 return left % right;
             case AND:
-                return toBool(left) && toBool(right);
+                return toInt(toBool(left) && toBool(right));
             case OR:
-                return toBool(left) || toBool(right);
+                return toInt(toBool(left) || toBool(right));
             case EQ:
-                return left == right;
+                return toInt(left == right);
             case NEQ:
-                return left != right;
+                return toInt(left != right);
             case LT:
-                return left < right;
+                return toInt(left < right);
             case GT:
-                return left > right;
+                return toInt(left > right);
             case LEQ:
-                return left <= right;
+                return toInt(left <= right);
             case GEQ:
-                return left >= right;
+                return toInt(left >= right);
             default:
                 throw new RuntimeException("Invalid binary operator!");
         }
     }
 
-    private Object execute(CallExpr call, Map<Frame.Temp, Object> temps) {
-        if (call.label.name.equals(Constants.printIntLabel)) {
+    private int execute(CallExpr call, int[] temps) {
+        if (call.label.name().equals(Constants.printIntLabel)) {
             if (call.args.size() != 2) { throw new RuntimeException("Invalid argument count!"); }
             var arg = execute(call.args.get(1), temps);
             outputStream.ifPresent(stream -> stream.println(arg));
-            return null;
-        } else if (call.label.name.equals(Constants.printStringLabel)) {
+            return 0;
+        } else if (call.label.name().equals(Constants.printStringLabel)) {
             if (call.args.size() != 2) { throw new RuntimeException("Invalid argument count!"); }
             var address = execute(call.args.get(1), temps);
-            var res = memory.ldM(toInt(address));
+            var res = memory.ldM(address);
             outputStream.ifPresent(stream -> stream.println("\""+res+"\""));
-            return null;
-        } else if (call.label.name.equals(Constants.printLogLabel)) {
+            return 0;
+        } else if (call.label.name().equals(Constants.printLogLabel)) {
             if (call.args.size() != 2) { throw new RuntimeException("Invalid argument count!"); }
-            var arg = execute(call.args.get(1), temps);
-            outputStream.ifPresent(stream -> stream.println(toBool(arg)));
-            return null;
-        } else if (call.label.name.equals(Constants.randIntLabel)) {
+            var arg = toBool(execute(call.args.get(1), temps));
+            outputStream.ifPresent(stream -> stream.println(arg));
+            return 0;
+        } else if (call.label.name().equals(Constants.randIntLabel)) {
             if (call.args.size() != 3) { throw new RuntimeException("Invalid argument count!"); }
-            var min = toInt(execute(call.args.get(1), temps));
-            var max = toInt(execute(call.args.get(2), temps));
+            var min = execute(call.args.get(1), temps);
+            var max = execute(call.args.get(2), temps);
             return random.nextInt(min, max);
-        } else if (call.label.name.equals(Constants.seedLabel)) {
+        } else if (call.label.name().equals(Constants.seedLabel)) {
             if (call.args.size() != 2) { throw new RuntimeException("Invalid argument count!"); }
-            var seed = toInt(execute(call.args.get(1), temps));
+            var seed = execute(call.args.get(1), temps);
             random = new Random(seed);
-            return null;
+            return 0;
         } else if (memory.ldM(call.label) instanceof CodeChunk chunk) {
             var offset = stackPointer;
             for (IRExpr arg : call.args){
-                memory.stM(offset, execute(arg, temps));
+                memory.stI(offset, execute(arg, temps));
                 offset += 4;
             }
-            internalInterpret(chunk, new HashMap<>());
-            return memory.ldM(stackPointer);
+            internalInterpret(chunk);
+            return memory.ldI(stackPointer);
 
         } else {
             throw new RuntimeException("Only functions can be called!");
         }
     }
 
-    private Object execute(ConstantExpr constant) {
-        return constant.constant;
-    }
-
-    private Object execute(MemExpr mem, Map<Frame.Temp, Object> temps) {
-        return memory.ldM(toInt(execute(mem.expr, temps)));
-    }
-
-    private Object execute(NameExpr name) {
-        if (Objects.equals(name.label.name, "{FP}")){
+    private int execute(NameExpr name) {
+        if (Objects.equals(name.label.name(), "{FP}")){
             return framePointer;
-        } else if (Objects.equals(name.label.name, "{SP}")) {
+        } else if (Objects.equals(name.label.name(), "{SP}")) {
             return stackPointer;
         } else {
             return memory.address(name.label);
         }
     }
 
-    private Object execute(TempExpr temp, Map<Frame.Temp, Object> temps) {
-        return temps.get(temp.temp);
-    }
-
     // ----------- pomožne funkcije -----------
 
-    private int toInt(Object obj) {
-        if (obj instanceof Integer integer) {
-            return integer;
-        } else if (obj instanceof Boolean bool) {
-            if (bool){
-                return 1;
-            } else{
-                return 0;
-            }
-        }
-        throw new IllegalArgumentException("Could not convert obj to integer!");
-    }
-
-    private boolean toBool(Object obj) {
-        if (obj instanceof Integer){
-            if ((Integer) obj == 1){
-                return true;
-            } else{
-                return false;
-            }
-        } else{
-            return (Boolean) obj;
-        }
+    private boolean toBool(int value) {
+        return value == 1;
     }
 
     private int toInt(boolean bool) {
@@ -10,10 +10,12 @@ import static common.RequireNonNull.requireNonNull;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 import common.Constants;
 import compiler.common.Visitor;
 import compiler.frm.Access;
+import compiler.frm.CompilationContext;
 import compiler.frm.Frame;
 import compiler.frm.Frame.Label;
 import compiler.ir.chunk.Chunk;
@@ -30,6 +32,11 @@ import compiler.seman.common.NodeDescription;
 import compiler.seman.type.type.Type;
 
 public class IRCodeGenerator implements Visitor {
+    /**
+     * Generator anonimnih label.
+     */
+    private final CompilationContext context;
+
     /**
      * Preslikava iz vozlišč AST v vmesno kodo.
      */
@@ -61,13 +68,22 @@ public class IRCodeGenerator implements Visitor {
      */
     public List<Chunk> chunks = new ArrayList<>();
 
+    /**
+     * Obdelava definicij funkcij namesto generiranja na mestu (npr. v
+     * ločenih nalogah, glej `ParallelIRCodeGenerator`); `null` pomeni
+     * zaporedno generiranje.
+     */
+    Consumer<FunDef> functions = null;
+
     public IRCodeGenerator(
+            CompilationContext context,
             NodeDescription<IRNode> imcCode,
             NodeDescription<Frame> frames,
             NodeDescription<Access> accesses,
             NodeDescription<Def> definitions,
             NodeDescription<Type> types) {
-        requireNonNull(imcCode, frames, accesses, definitions, types);
+        requireNonNull(context, imcCode, frames, accesses, definitions, types);
+        this.context = context;
         this.types = types;
         this.imcCode = imcCode;
         this.frames = frames;
@@ -90,7 +106,7 @@ public class IRCodeGenerator implements Visitor {
 
         // Shranim trenutni staticni nivo in dobim definicijo funkcije
         var currentLevel = currentFrame.staticLevel;
-        var def = definitions.valueFor(call).get();
+        var def = definitions.get(call);
 
         frames.valueFor(def).ifPresent(frame -> {
             // Izracunam odmik za shranjevanje starega FP
@@ -121,7 +137,7 @@ public class IRCodeGenerator implements Visitor {
             }
 
             // Dodamo vse argumente
-            call.arguments.forEach(arg -> args.add((IRExpr) imcCode.valueFor(arg).get()));
+            call.arguments.forEach(arg -> args.add((IRExpr) imcCode.get(arg)));
 
             imcCode.store(new EseqExpr(saveFP, new CallExpr(frame.label, args)), call);
         });
@@ -132,7 +148,7 @@ public class IRCodeGenerator implements Visitor {
         List<IRExpr> args = new ArrayList<>();
         // Ker so klicane funkcije tehnicno globalne dobi simbolicno konstanto 0
         args.add(new ConstantExpr(0));
-        args.addAll(call.arguments.stream().map(arg -> (IRExpr) imcCode.valueFor(arg).get()).toList());
+        args.addAll(call.arguments.stream().map(arg -> (IRExpr) imcCode.get(arg)).toList());
         imcCode.store(new CallExpr(Frame.Label.named(call.name), args), call);
     }
 
@@ -141,8 +157,8 @@ public class IRCodeGenerator implements Visitor {
         // Sprejmemo levo in desno stran
         binary.left.accept(this);
         binary.right.accept(this);
-        var left = imcCode.valueFor(binary.left).get();
-        var right = imcCode.valueFor(binary.right).get();
+        var left = imcCode.get(binary.left);
+        var right = imcCode.get(binary.right);
 
         // Ce je operator = izvedemo Move operacijo
         if (binary.operator.equals(Binary.Operator.ASSIGN)) {
@@ -175,11 +191,11 @@ public class IRCodeGenerator implements Visitor {
         block.expressions.forEach(expr -> expr.accept(this));
         // Zberi vse izraze razen zadnjega in jih pretvori v IRExpr ali IRStmt
         var statements = block.expressions.stream().limit(block.expressions.size() - 1)
-                .map(expr -> imcCode.valueFor(expr).get() instanceof IRStmt irStmt ? irStmt
-                        : new ExpStmt((IRExpr) imcCode.valueFor(expr).get()))
+                .map(expr -> imcCode.get(expr) instanceof IRStmt irStmt ? irStmt
+                        : new ExpStmt((IRExpr) imcCode.get(expr)))
                 .toList();
 
-        var last = (IRExpr) imcCode.valueFor(block.expressions.get(block.expressions.size() - 1)).get();
+        var last = (IRExpr) imcCode.get(block.expressions.get(block.expressions.size() - 1));
 
         imcCode.store(new EseqExpr(new SeqStmt(statements), last), block);
     }
@@ -197,17 +213,17 @@ public class IRCodeGenerator implements Visitor {
 
         // Ustvari labele za skok na zacetek zanke, skok na telo zanke in skok na konec
         // zanke
-        var label0 = new LabelStmt(Label.nextAnonymous());
-        var label1 = new LabelStmt(Label.nextAnonymous());
-        var label2 = new LabelStmt(Label.nextAnonymous());
+        var label0 = new LabelStmt(context.nextLabel());
+        var label1 = new LabelStmt(context.nextLabel());
+        var label2 = new LabelStmt(context.nextLabel());
 
         // Izracunaj pogoj za skok na telo zanke ali konec zanke
-        var cond = new BinopExpr((IRExpr) imcCode.valueFor(forLoop.counter).get(),
-                (IRExpr) imcCode.valueFor(forLoop.high).get(), BinopExpr.Operator.LT);
+        var cond = new BinopExpr((IRExpr) imcCode.get(forLoop.counter),
+                (IRExpr) imcCode.get(forLoop.high), BinopExpr.Operator.LT);
 
         // Nastavi zacetno vrednost stevca
-        statements.add(new MoveStmt((IRExpr) imcCode.valueFor(forLoop.counter).get(),
-                (IRExpr) imcCode.valueFor(forLoop.low).get()));
+        statements.add(new MoveStmt((IRExpr) imcCode.get(forLoop.counter),
+                (IRExpr) imcCode.get(forLoop.low)));
         // Dodaj labelo za začetek zanke
         statements.add(label0);
         // Dodaj pogoj za skok na telo zanke ali konec zanke
@@ -224,9 +240,9 @@ public class IRCodeGenerator implements Visitor {
         });
 
         // Dodaj povecanje stevca
-        statements.add(new MoveStmt((IRExpr) imcCode.valueFor(forLoop.counter).get(),
-                new BinopExpr((IRExpr) imcCode.valueFor(forLoop.counter).get(),
-                        (IRExpr) imcCode.valueFor(forLoop.step).get(), BinopExpr.Operator.ADD)));
+        statements.add(new MoveStmt((IRExpr) imcCode.get(forLoop.counter),
+                new BinopExpr((IRExpr) imcCode.get(forLoop.counter),
+                        (IRExpr) imcCode.get(forLoop.step), BinopExpr.Operator.ADD)));
         // Dodaj brezpogojni skok na zacetek zanke
         statements.add(new JumpStmt(label0.label));
         // Dodaj labelo za konec zanke
@@ -242,7 +258,7 @@ public class IRCodeGenerator implements Visitor {
             // Preveri ce access obstaja
             accesses.valueFor(nameValue).ifPresent(accessValue -> {
                 if (accessValue instanceof Access.Global globalAccess) {
-                    var type = types.valueFor(nameValue).get();
+                    var type = types.get(nameValue);
                     // Ce je tip imena seznam se dela z naslovom tabele, ne potrebujemo MEM
                     if (type.isArray())
                         imcCode.store(new NameExpr(globalAccess.label), name);
@@ -263,7 +279,7 @@ public class IRCodeGenerator implements Visitor {
                 if (accessValue instanceof Access.Local localAccess) {
                     // Izracunam Static Link in s dobim vrednost spremenljivke
                     BinopExpr staticLink = new BinopExpr(calculateStaticLink(localAccess.staticLevel, currentFrame.staticLevel), new ConstantExpr(localAccess.offset), BinopExpr.Operator.ADD);
-                    var type = types.valueFor(nameValue).get();
+                    var type = types.get(nameValue);
                     if (type.isArray())
                         imcCode.store(staticLink, name);
                     else
@@ -283,9 +299,9 @@ public class IRCodeGenerator implements Visitor {
         var statements = new ArrayList<IRStmt>();
 
         // Ustvari labelo za then else in konec (else je lahko neuporabljen)
-        var label1 = new LabelStmt(Label.nextAnonymous());
-        var label2 = new LabelStmt(Label.nextAnonymous());
-        var label3 = new LabelStmt(Label.nextAnonymous());
+        var label1 = new LabelStmt(context.nextLabel());
+        var label2 = new LabelStmt(context.nextLabel());
+        var label3 = new LabelStmt(context.nextLabel());
 
         imcCode.valueFor(ifThenElse.condition).ifPresent(ifValue -> {
             imcCode.valueFor(ifThenElse.thenExpression).ifPresent(thenValue -> {
@@ -341,7 +357,7 @@ public class IRCodeGenerator implements Visitor {
                 imcCode.store(new ConstantExpr(literal.value.equals("true") ? 1 : 0), literal);
             else if (type.isStr()) {
                 // Ce je literal string se zanj ustvari labela in se ustvari data chunk
-                Label label = Label.nextAnonymous();
+                Label label = context.nextLabel();
                 var dataChunk = new Chunk.DataChunk(new Access.Global(Constants.WordSize, label), literal.value);
                 chunks.add(dataChunk);
                 imcCode.store(new NameExpr(label), literal);
@@ -378,14 +394,14 @@ public class IRCodeGenerator implements Visitor {
         List<IRStmt> statements = new ArrayList<IRStmt>();
 
         // Usrvarimo labelo za zacetek, telo in konec
-        var label0 = new LabelStmt(Label.nextAnonymous());
-        var label1 = new LabelStmt(Label.nextAnonymous());
-        var label2 = new LabelStmt(Label.nextAnonymous());
+        var label0 = new LabelStmt(context.nextLabel());
+        var label1 = new LabelStmt(context.nextLabel());
+        var label2 = new LabelStmt(context.nextLabel());
 
         // Dodamo labelo za zacetek
         statements.add(label0);
         // Dodamo pogojni skok na telo ali kone
-        statements.add(new CJumpStmt((IRExpr) imcCode.valueFor(whileLoop.condition).get(), label1.label, label2.label));
+        statements.add(new CJumpStmt((IRExpr) imcCode.get(whileLoop.condition), label1.label, label2.label));
         // Dodamo labelo za telo
         statements.add(label1);
         // Ce je telo izraz je potrebno ustvariti ExpStmt, ce ni se uporabi stavek
@@ -422,9 +438,20 @@ public class IRCodeGenerator implements Visitor {
 
     @Override
     public void visit(FunDef funDef) {
+        if (functions != null) {
+            functions.accept(funDef);
+            return;
+        }
+        generateFunction(funDef);
+    }
+
+    /**
+     * Generiraj kodo funkcije in gnezdenih funkcij.
+     */
+    void generateFunction(FunDef funDef) {
         // Shranimo star frame in nastavimo nov trenutni frame
         Frame oldFrame = this.currentFrame;
-        this.currentFrame = frames.valueFor(funDef).get();
+        this.currentFrame = frames.get(funDef);
         // Sprejmemo telo funkcije
         funDef.body.accept(this);
 
@@ -0,0 +1,226 @@
+/**
+ * @ Author: turk
+ * @ Description: Vzporedni generator vmesne kode.
+ */
+
+package compiler.ir;
+
+import static common.RequireNonNull.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import compiler.frm.Access;
+import compiler.frm.CompilationContext;
+import compiler.frm.Frame;
+import compiler.ir.chunk.Chunk;
+import compiler.ir.code.IRNode;
+import compiler.parser.ast.Ast;
+import compiler.parser.ast.def.Def;
+import compiler.parser.ast.def.FunDef;
+import compiler.seman.common.NodeDescription;
+import compiler.seman.type.type.Type;
+
+/**
+ * Kodo vsake funkcije (tudi gnezdene) generira `IRCodeGenerator` v svoji
+ * nalogi v bazenu niti s krajo dela (`ForkJoinPool`).
+ *
+ * Rezultat je enak kot pri zaporednem generiranju:
+ * - naloga na mestu gnezdene funkcije shrani le njeno nalogo, koščke
+ *   pa ob koncu vstavi na to mesto, zato je vrstni red koščkov enak;
+ * - naloge anonimne labele le ustvarijo (`CompilationContext.deferred`),
+ *   poimenujejo pa se, ko so vse naloge končane, v vrstnem redu
+ *   zaporednega generiranja, zato so imena label enaka.
+ *
+ * Opisa `imcCode` naloge ne delijo (vsaka piše le v vozlišča svoje
+ * funkcije), zato mora biti ustvarjen z dovolj veliko kapaciteto.
+ */
+public class ParallelIRCodeGenerator {
+    /**
+     * Generator anonimnih label.
+     */
+    private final CompilationContext context;
+
+    /**
+     * Bazen niti.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Preslikava iz vozlišč AST v vmesno kodo.
+     */
+    private final NodeDescription<IRNode> imcCode;
+
+    /**
+     * Razrešeni klicni zapisi.
+     */
+    private final NodeDescription<Frame> frames;
+
+    /**
+     * Razrešeni dostopi.
+     */
+    private final NodeDescription<Access> accesses;
+
+    /**
+     * Razrešene definicije.
+     */
+    private final NodeDescription<Def> definitions;
+
+    /**
+     * Razrešeni tipi.
+     */
+    private final NodeDescription<Type> types;
+
+    /**
+     * **Rezultat generiranja vmesne kode** - seznam fragmentov.
+     */
+    public List<Chunk> chunks = new ArrayList<>();
+
+    public ParallelIRCodeGenerator(
+            CompilationContext context,
+            ForkJoinPool pool,
+            NodeDescription<IRNode> imcCode,
+            NodeDescription<Frame> frames,
+            NodeDescription<Access> accesses,
+            NodeDescription<Def> definitions,
+            NodeDescription<Type> types) {
+        requireNonNull(context, pool, imcCode, frames, accesses, definitions, types);
+        this.context = context;
+        this.pool = pool;
+        this.imcCode = imcCode;
+        this.frames = frames;
+        this.accesses = accesses;
+        this.definitions = definitions;
+        this.types = types;
+    }
+
+    /**
+     * Generiraj vmesno kodo programa `ast` v `chunks`.
+     */
+    public void generate(Ast ast) {
+        var generator = pool.invoke(new ProgramTask(ast));
+        var firstLabel = context.labelCount();
+        context.skipLabels(generator.nameLabels(firstLabel) - firstLabel);
+        generator.collectChunks(chunks);
+    }
+
+    /**
+     * Generiranje kode definicij na najvišjem nivoju.
+     */
+    private class ProgramTask extends RecursiveTask<FunctionGenerator> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Ast ast;
+
+        ProgramTask(Ast ast) {
+            this.ast = ast;
+        }
+
+        @Override
+        protected FunctionGenerator compute() {
+            var generator = new FunctionGenerator();
+            ast.accept(generator.generator);
+            generator.join();
+            return generator;
+        }
+    }
+
+    /**
+     * Generiranje kode ene funkcije.
+     */
+    private class FunctionTask extends RecursiveTask<FunctionGenerator> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient FunDef funDef;
+
+        FunctionTask(FunDef funDef) {
+            this.funDef = funDef;
+        }
+
+        @Override
+        protected FunctionGenerator compute() {
+            var generator = new FunctionGenerator();
+            generator.generator.generateFunction(funDef);
+            generator.join();
+            return generator;
+        }
+    }
+
+    /**
+     * `IRCodeGenerator`, ki za vsako gnezdeno funkcijo ustvari novo nalogo
+     * in si zapomni, kam spadajo njeni koščki in labele.
+     */
+    private class FunctionGenerator {
+        private final CompilationContext context = CompilationContext.deferred();
+
+        final IRCodeGenerator generator;
+
+        /**
+         * Naloge gnezdenih funkcij, mesta v `generator.chunks`, kamor
+         * spadajo njihovi koščki, in število label, ki jih je ta funkcija
+         * ustvarila pred njimi.
+         */
+        private final List<FunctionTask> tasks = new ArrayList<>();
+        private final List<Integer> positions = new ArrayList<>();
+        private final List<Integer> labelPositions = new ArrayList<>();
+
+        /**
+         * Generatorji gnezdenih funkcij (po `join`).
+         */
+        private final List<FunctionGenerator> functions = new ArrayList<>();
+
+        FunctionGenerator() {
+            generator = new IRCodeGenerator(context, imcCode, frames, accesses, definitions, types);
+            generator.functions = funDef -> {
+                var task = new FunctionTask(funDef);
+                tasks.add(task);
+                positions.add(generator.chunks.size());
+                labelPositions.add(context.labelCount());
+                task.fork();
+            };
+        }
+
+        /**
+         * Počakaj na naloge gnezdenih funkcij.
+         */
+        void join() {
+            for (var task : tasks) {
+                functions.add(task.join());
+            }
+        }
+
+        /**
+         * Poimenuj anonimne labele te in gnezdenih funkcij v vrstnem redu
+         * zaporednega generiranja od `firstLabel` naprej in vrni številko
+         * naslednje labele.
+         */
+        int nameLabels(int firstLabel) {
+            int label = 0;
+            for (int i = 0; i < functions.size(); i++) {
+                firstLabel = context.nameLabels(label, labelPositions.get(i), firstLabel);
+                firstLabel = functions.get(i).nameLabels(firstLabel);
+                label = labelPositions.get(i);
+            }
+            return context.nameLabels(label, context.labelCount(), firstLabel);
+        }
+
+        /**
+         * Dodaj koščke te in gnezdenih funkcij v `result` v vrstnem redu
+         * zaporednega generiranja.
+         */
+        void collectChunks(List<Chunk> result) {
+            var chunks = generator.chunks;
+            int function = 0;
+            for (int i = 0; i <= chunks.size(); i++) {
+                while (function < functions.size() && positions.get(function) == i) {
+                    functions.get(function++).collectChunks(result);
+                }
+                if (i < chunks.size()) {
+                    result.add(chunks.get(i));
+                }
+            }
+        }
+    }
+}
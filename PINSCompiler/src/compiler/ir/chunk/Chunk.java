@@ -52,10 +52,23 @@ public abstract class Chunk {
          */
         public final IRStmt code;
 
+        /**
+         * Število začasnih spremenljivk.
+         *
+         * Po linearizaciji so začasne spremenljivke fragmenta
+         * oštevilčene z indeksi `0 .. temps - 1`.
+         */
+        public final int temps;
+
         public CodeChunk(Frame frame, IRStmt code) {
+            this(frame, code, 0);
+        }
+
+        public CodeChunk(Frame frame, IRStmt code, int temps) {
             requireNonNull(frame, code);
             this.frame = frame;
             this.code = code;
+            this.temps = temps;
         }
 
         @Override
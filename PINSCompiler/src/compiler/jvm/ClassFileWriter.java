@@ -0,0 +1,374 @@
+/**
+ * @ Author: turk
+ * @ Description: Zapisovalnik datotek razredov JVM.
+ */
+
+package compiler.jvm;
+
+import static common.RequireNonNull.requireNonNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimalni zapisovalnik datotek razredov.
+ *
+ * Razred je zapisan v različici 49 (Java 5), ki še ne zahteva
+ * atributa `StackMapTable`; razred tako preveri preverjalnik,
+ * ki tipe izpelje sam.
+ */
+public final class ClassFileWriter {
+    public static final int ACC_PUBLIC = 0x0001;
+    public static final int ACC_STATIC = 0x0008;
+    public static final int ACC_FINAL = 0x0010;
+    public static final int ACC_SUPER = 0x0020;
+
+    private static final int MAJOR_VERSION = 49;
+
+    /**
+     * Zapisi v tabeli konstant.
+     */
+    private final ByteArrayOutputStream constantPool = new ByteArrayOutputStream();
+    private final DataOutputStream constantPoolOut = new DataOutputStream(constantPool);
+    private int constantCount = 1;
+    private final Map<String, Integer> constants = new HashMap<>();
+
+    /**
+     * Zapisane metode.
+     */
+    private final List<byte[]> methods = new ArrayList<>();
+
+    private final int thisClass;
+    private final int superClass;
+
+    /**
+     * Ustvari nov razred.
+     *
+     * @param name notranje ime razreda (npr. `compiler/jvm/Program`)
+     */
+    public ClassFileWriter(String name) {
+        requireNonNull(name);
+        this.thisClass = classConstant(name);
+        this.superClass = classConstant("java/lang/Object");
+    }
+
+    // ----------- tabela konstant -----------
+
+    public int utf8(String value) {
+        return constant("U" + value, out -> {
+            out.writeByte(1);
+            out.writeUTF(value);
+        });
+    }
+
+    public int integer(int value) {
+        return constant("I" + value, out -> {
+            out.writeByte(3);
+            out.writeInt(value);
+        });
+    }
+
+    public int classConstant(String name) {
+        var nameIndex = utf8(name);
+        return constant("C" + name, out -> {
+            out.writeByte(7);
+            out.writeShort(nameIndex);
+        });
+    }
+
+    public int methodref(String owner, String name, String descriptor) {
+        var classIndex = classConstant(owner);
+        var nameIndex = utf8(name);
+        var descriptorIndex = utf8(descriptor);
+        var nameAndType = constant("N" + name + ":" + descriptor, out -> {
+            out.writeByte(12);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+        });
+        return constant("M" + owner + "." + name + ":" + descriptor, out -> {
+            out.writeByte(10);
+            out.writeShort(classIndex);
+            out.writeShort(nameAndType);
+        });
+    }
+
+    private int constant(String key, ConstantWriter writer) {
+        var index = constants.get(key);
+        if (index == null) {
+            try {
+                writer.write(constantPoolOut);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            index = constantCount++;
+            if (index > 0xFFFF) {
+                throw new RuntimeException("Constant pool too large!");
+            }
+            constants.put(key, index);
+        }
+        return index;
+    }
+
+    private interface ConstantWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    // ----------- metode -----------
+
+    /**
+     * Dodaj metodo z zapisano kodo.
+     */
+    public void addMethod(int access, String name, String descriptor, Code code) {
+        if (code.length > 0xFFFF) {
+            throw new RuntimeException("Method " + name + " too large for JVM backend!");
+        }
+        var bytes = new ByteArrayOutputStream();
+        var out = new DataOutputStream(bytes);
+        try {
+            out.writeShort(access);
+            out.writeShort(utf8(name));
+            out.writeShort(utf8(descriptor));
+            out.writeShort(1);
+            out.writeShort(utf8("Code"));
+            out.writeInt(2 + 2 + 4 + code.length + 2 + 2);
+            out.writeShort(code.maxStack);
+            out.writeShort(code.maxLocals);
+            out.writeInt(code.length);
+            out.write(code.bytes, 0, code.length);
+            out.writeShort(0); // tabela izjem
+            out.writeShort(0); // atributi
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        methods.add(bytes.toByteArray());
+    }
+
+    /**
+     * Vrne zapisan razred.
+     */
+    public byte[] toByteArray() {
+        var bytes = new ByteArrayOutputStream();
+        var out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(MAJOR_VERSION);
+            out.writeShort(constantCount);
+            constantPool.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0); // vmesniki
+            out.writeShort(0); // polja
+            out.writeShort(methods.size());
+            for (var method : methods) {
+                out.write(method);
+            }
+            out.writeShort(0); // atributi
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // ----------- koda metode -----------
+
+    /**
+     * Oznaka mesta v kodi metode (cilj skoka).
+     */
+    public static class Label {
+        private int position = -1;
+        private final List<int[]> fixups = new ArrayList<>();
+    }
+
+    /**
+     * Graditelj kode ene metode.
+     *
+     * Sproti spremlja globino operandnega sklada, da lahko
+     * izračuna `max_stack`.
+     */
+    public static class Code {
+        public static final int ICONST_0 = 0x03;
+        public static final int ILOAD = 0x15;
+        public static final int ALOAD = 0x19;
+        public static final int IALOAD = 0x2e;
+        public static final int ISTORE = 0x36;
+        public static final int IASTORE = 0x4f;
+        public static final int POP = 0x57;
+        public static final int IADD = 0x60;
+        public static final int ISUB = 0x64;
+        public static final int IMUL = 0x68;
+        public static final int IDIV = 0x6c;
+        public static final int IREM = 0x70;
+        public static final int ISHR = 0x7a;
+        public static final int IAND = 0x7e;
+        public static final int IOR = 0x80;
+        public static final int IF_ICMPEQ = 0x9f;
+        public static final int IF_ICMPNE = 0xa0;
+        public static final int IF_ICMPLT = 0xa1;
+        public static final int IF_ICMPGE = 0xa2;
+        public static final int IF_ICMPGT = 0xa3;
+        public static final int IF_ICMPLE = 0xa4;
+        public static final int GOTO = 0xa7;
+        public static final int RETURN = 0xb1;
+        public static final int INVOKEVIRTUAL = 0xb6;
+        public static final int INVOKESTATIC = 0xb8;
+        public static final int WIDE = 0xc4;
+
+        private final ClassFileWriter writer;
+        private byte[] bytes = new byte[64];
+        private int length;
+        private int stack;
+        private int maxStack;
+        private int maxLocals;
+
+        public Code(ClassFileWriter writer, int maxLocals) {
+            requireNonNull(writer);
+            this.writer = writer;
+            this.maxLocals = maxLocals;
+        }
+
+        /**
+         * Zapiši ukaz brez operandov.
+         *
+         * @param stackDelta sprememba globine operandnega sklada
+         */
+        public void op(int opcode, int stackDelta) {
+            u1(opcode);
+            adjustStack(stackDelta);
+        }
+
+        public void iconst(int value) {
+            if (value >= -1 && value <= 5) {
+                u1(ICONST_0 + value);
+            } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                u1(0x10); // bipush
+                u1(value);
+            } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                u1(0x11); // sipush
+                u2(value);
+            } else {
+                var index = writer.integer(value);
+                if (index <= 0xFF) {
+                    u1(0x12); // ldc
+                    u1(index);
+                } else {
+                    u1(0x13); // ldc_w
+                    u2(index);
+                }
+            }
+            adjustStack(1);
+        }
+
+        public void iload(int local) {
+            local(ILOAD, 0x1a, local);
+            adjustStack(1);
+        }
+
+        public void istore(int local) {
+            local(ISTORE, 0x3b, local);
+            adjustStack(-1);
+        }
+
+        public void aload(int local) {
+            local(ALOAD, 0x2a, local);
+            adjustStack(1);
+        }
+
+        /**
+         * Zapiši klic metode.
+         *
+         * @param stackDelta sprememba globine operandnega sklada (rezultat - argumenti)
+         */
+        public void invoke(int opcode, String owner, String name, String descriptor, int stackDelta) {
+            u1(opcode);
+            u2(writer.methodref(owner, name, descriptor));
+            adjustStack(stackDelta);
+        }
+
+        /**
+         * Zapiši (pogojni) skok na oznako.
+         */
+        public void jump(int opcode, Label target) {
+            var start = length;
+            u1(opcode);
+            if (target.position >= 0) {
+                u2(branchOffset(start, target.position));
+            } else {
+                target.fixups.add(new int[] { start, length });
+                u2(0);
+            }
+            adjustStack(opcode == GOTO ? 0 : -2);
+        }
+
+        /**
+         * Postavi oznako na trenutno mesto v kodi.
+         */
+        public void bind(Label label) {
+            label.position = length;
+            for (var fixup : label.fixups) {
+                var offset = branchOffset(fixup[0], length);
+                bytes[fixup[1]] = (byte) (offset >> 8);
+                bytes[fixup[1] + 1] = (byte) offset;
+            }
+            label.fixups.clear();
+        }
+
+        /**
+         * Nastavi globino operandnega sklada (npr. po brezpogojnem skoku).
+         */
+        public void setStack(int stack) {
+            this.stack = stack;
+        }
+
+        public int stack() {
+            return stack;
+        }
+
+        private void local(int opcode, int shortOpcode, int local) {
+            maxLocals = Math.max(maxLocals, local + 1);
+            if (local <= 3) {
+                u1(shortOpcode + local);
+            } else if (local <= 0xFF) {
+                u1(opcode);
+                u1(local);
+            } else {
+                u1(WIDE);
+                u1(opcode);
+                u2(local);
+            }
+        }
+
+        private int branchOffset(int from, int to) {
+            var offset = to - from;
+            if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+                throw new RuntimeException("Method too large for JVM backend!");
+            }
+            return offset;
+        }
+
+        private void adjustStack(int delta) {
+            stack += delta;
+            maxStack = Math.max(maxStack, stack);
+        }
+
+        private void u1(int value) {
+            if (length + 1 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        private void u2(int value) {
+            u1(value >> 8);
+            u1(value);
+        }
+    }
+}
@@ -0,0 +1,340 @@
+/**
+ * @ Author: turk
+ * @ Description: Prevajanje linearizirane vmesne kode v bajtno kodo JVM.
+ */
+
+package compiler.jvm;
+
+import static common.RequireNonNull.requireNonNull;
+import static compiler.jvm.ClassFileWriter.Code.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import common.Constants;
+import compiler.frm.Frame;
+import compiler.gen.Memory;
+import compiler.ir.chunk.Chunk.CodeChunk;
+import compiler.ir.code.expr.*;
+import compiler.ir.code.stmt.*;
+
+/**
+ * Vsaka funkcija postane statična metoda razreda `compiler.jvm.Program`:
+ *
+ * `static void f<n>(int fp, JvmRuntime runtime)`
+ *
+ * Besede pomnilnika navideznega stroja beremo in pišemo z
+ * `JvmRuntime.load` in `JvmRuntime.store`, ki naslov preverita enako
+ * kot `Memory`. Začasne spremenljivke
+ * so lokalne spremenljivke metode, SP pa je `fp - velikost klicnega zapisa`.
+ */
+public class JvmGenerator {
+    static final String CLASS_NAME = "compiler/jvm/Program";
+    static final String RUNTIME = "compiler/jvm/JvmRuntime";
+    static final String DESCRIPTOR = "(IL" + RUNTIME + ";)V";
+
+    /**
+     * Ime metode funkcije `main`.
+     */
+    static final String MAIN = methodName(0);
+
+    /**
+     * Lokalne spremenljivke metode.
+     */
+    private static final int FP = 0;
+    private static final int RUNTIME_LOCAL = 1;
+    private static final int FIRST_TEMP = 2;
+
+    /**
+     * Pomnilnik navideznega stroja (iz njega beremo fragmente kode in naslove label).
+     */
+    private final Memory memory;
+
+    private final ClassFileWriter writer = new ClassFileWriter(CLASS_NAME);
+
+    /**
+     * Preslikava iz vstopnih label funkcij v indekse metod.
+     */
+    private final Map<Frame.Label, Integer> functionIndices = new HashMap<>();
+
+    /**
+     * Fragmenti kode, ki jih moramo še prevesti.
+     */
+    private final List<CodeChunk> pending = new ArrayList<>();
+
+    // ------ stanje trenutno prevajane funkcije ------
+
+    private ClassFileWriter.Code code;
+    private Frame frame;
+    private Map<Frame.Label, ClassFileWriter.Label> labels;
+
+    public JvmGenerator(Memory memory) {
+        requireNonNull(memory);
+        this.memory = memory;
+    }
+
+    /**
+     * Preveden program.
+     */
+    public static class Program {
+        /**
+         * Datoteka razreda `compiler.jvm.Program`.
+         */
+        public final byte[] classFile;
+
+        /**
+         * Klicni zapis funkcije `main`.
+         */
+        public final Frame main;
+
+        public Program(byte[] classFile, Frame main) {
+            requireNonNull(classFile, main);
+            this.classFile = classFile;
+            this.main = main;
+        }
+    }
+
+    /**
+     * Prevede funkcijo `main` in vse funkcije, ki so iz nje dosegljive.
+     *
+     * @param main lineariziran fragment kode funkcije `main`
+     */
+    public Program generate(CodeChunk main) {
+        functionIndex(main);
+        for (int i = 0; i < pending.size(); i++) {
+            generateMethod(methodName(i), pending.get(i));
+        }
+        return new Program(writer.toByteArray(), main.frame);
+    }
+
+    private static String methodName(int index) {
+        return "f" + index;
+    }
+
+    private int functionIndex(CodeChunk chunk) {
+        var index = functionIndices.get(chunk.frame.label);
+        if (index == null) {
+            index = pending.size();
+            functionIndices.put(chunk.frame.label, index);
+            pending.add(chunk);
+        }
+        return index;
+    }
+
+    private void generateMethod(String name, CodeChunk chunk) {
+        if (!(chunk.code instanceof SeqStmt seq)) {
+            throw new RuntimeException("Linearize IR!");
+        }
+        code = new ClassFileWriter.Code(writer, FIRST_TEMP);
+        frame = chunk.frame;
+        labels = new HashMap<>();
+        // Preverjalnik zahteva, da so lokalne spremenljivke inicializirane.
+        for (int i = 0; i < chunk.temps; i++) {
+            code.iconst(0);
+            code.istore(FIRST_TEMP + i);
+        }
+        for (var stmt : seq.statements) {
+            generate(stmt);
+        }
+        code.op(RETURN, 0);
+        writer.addMethod(ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_STATIC, name, DESCRIPTOR, code);
+    }
+
+    // ----------- stavki -----------
+
+    private void generate(IRStmt stmt) {
+        if (stmt instanceof CJumpStmt cjump) {
+            if (cjump.condition instanceof BinopExpr binop && isComparison(binop.op)) {
+                generate(binop.lhs);
+                generate(binop.rhs);
+                code.jump(comparisonOpcode(binop.op), label(cjump.thenLabel));
+            } else {
+                generate(cjump.condition);
+                code.iconst(1);
+                code.jump(IF_ICMPEQ, label(cjump.thenLabel));
+            }
+            code.jump(GOTO, label(cjump.elseLabel));
+        } else if (stmt instanceof ExpStmt exp) {
+            generate(exp.expr);
+            code.op(POP, -1);
+        } else if (stmt instanceof JumpStmt jump) {
+            code.jump(GOTO, label(jump.label));
+        } else if (stmt instanceof LabelStmt label) {
+            code.bind(label(label.label));
+        } else if (stmt instanceof MoveStmt move) {
+            if (move.dst instanceof TempExpr temp) {
+                generate(move.src);
+                code.istore(FIRST_TEMP + temp.temp.id);
+            } else if (move.dst instanceof MemExpr mem) {
+                code.aload(RUNTIME_LOCAL);
+                generate(mem.expr);
+                generate(move.src);
+                generateStore();
+            } else {
+                throw new RuntimeException("Invalid move destination!");
+            }
+        } else {
+            throw new RuntimeException("Cannot generate code for this statement!");
+        }
+    }
+
+    // ----------- izrazi -----------
+
+    /**
+     * Prevede izraz tako, da je njegova vrednost na vrhu operandnega sklada.
+     */
+    private void generate(IRExpr expr) {
+        if (expr instanceof BinopExpr binop) {
+            generate(binop);
+        } else if (expr instanceof CallExpr call) {
+            generate(call);
+        } else if (expr instanceof ConstantExpr constant) {
+            code.iconst(constant.constant);
+        } else if (expr instanceof EseqExpr) {
+            throw new RuntimeException("Cannot generate code for ESEQ; linearize IRCode!");
+        } else if (expr instanceof MemExpr mem) {
+            code.aload(RUNTIME_LOCAL);
+            generate(mem.expr);
+            generateLoad();
+        } else if (expr instanceof NameExpr name) {
+            if (name.label.name().equals(Constants.framePointer)) {
+                code.iload(FP);
+            } else if (name.label.name().equals(Constants.stackPointer)) {
+                generateStackPointer();
+            } else {
+                code.iconst(memory.address(name.label));
+            }
+        } else if (expr instanceof TempExpr temp) {
+            code.iload(FIRST_TEMP + temp.temp.id);
+        } else {
+            throw new IllegalArgumentException("Unknown expr type");
+        }
+    }
+
+    private void generate(BinopExpr binop) {
+        generate(binop.lhs);
+        generate(binop.rhs);
+        switch (binop.op) {
+            case ADD -> code.op(IADD, -1);
+            case SUB -> code.op(ISUB, -1);
+            case MUL -> code.op(IMUL, -1);
+            case DIV -> code.op(IDIV, -1);
+            case MOD -> code.op(IREM, -1);
+            // Logične vrednosti so vedno 0 ali 1.
+            case AND -> code.op(IAND, -1);
+            case OR -> code.op(IOR, -1);
+            default -> {
+                var isTrue = new ClassFileWriter.Label();
+                var end = new ClassFileWriter.Label();
+                code.jump(comparisonOpcode(binop.op), isTrue);
+                code.iconst(0);
+                code.jump(GOTO, end);
+                code.bind(isTrue);
+                code.setStack(code.stack() - 1);
+                code.iconst(1);
+                code.bind(end);
+            }
+        }
+    }
+
+    private void generate(CallExpr call) {
+        var name = call.label.name();
+        if (name.equals(Constants.printIntLabel)) {
+            generateLibraryCall(call, "printInt", "(I)V", 2);
+        } else if (name.equals(Constants.printStringLabel)) {
+            generateLibraryCall(call, "printString", "(I)V", 2);
+        } else if (name.equals(Constants.printLogLabel)) {
+            generateLibraryCall(call, "printLog", "(I)V", 2);
+        } else if (name.equals(Constants.randIntLabel)) {
+            generateLibraryCall(call, "randInt", "(II)I", 3);
+        } else if (name.equals(Constants.seedLabel)) {
+            generateLibraryCall(call, "seed", "(I)V", 2);
+        } else if (memory.ldM(call.label) instanceof CodeChunk chunk) {
+            // Argumente shranimo na dno klicnega zapisa (od SP navzgor).
+            for (int i = 0; i < call.args.size(); i++) {
+                code.aload(RUNTIME_LOCAL);
+                generateStackPointer();
+                code.iconst(i * Constants.WordSize);
+                code.op(IADD, -1);
+                generate(call.args.get(i));
+                generateStore();
+            }
+            generateStackPointer();
+            code.aload(RUNTIME_LOCAL);
+            code.invoke(INVOKESTATIC, CLASS_NAME, methodName(functionIndex(chunk)), DESCRIPTOR, -2);
+            // Rezultat je na naslovu SP.
+            code.aload(RUNTIME_LOCAL);
+            generateStackPointer();
+            generateLoad();
+        } else {
+            throw new RuntimeException("Only functions can be called!");
+        }
+    }
+
+    private void generateLibraryCall(CallExpr call, String method, String descriptor, int argumentCount) {
+        if (call.args.size() != argumentCount) {
+            throw new RuntimeException("Invalid argument count!");
+        }
+        code.aload(RUNTIME_LOCAL);
+        // Prvi argument (statična povezava) knjižnične funkcije ne potrebujejo.
+        for (int i = 1; i < argumentCount; i++) {
+            generate(call.args.get(i));
+        }
+        if (descriptor.endsWith("V")) {
+            code.invoke(INVOKEVIRTUAL, RUNTIME, method, descriptor, -argumentCount);
+            code.iconst(0);
+        } else {
+            code.invoke(INVOKEVIRTUAL, RUNTIME, method, descriptor, 1 - argumentCount);
+        }
+    }
+
+    private void generateStackPointer() {
+        code.iload(FP);
+        code.iconst(frame.size());
+        code.op(ISUB, -1);
+    }
+
+    /**
+     * Na skladu sta `runtime` in naslov; zamenja ju beseda na naslovu.
+     */
+    private void generateLoad() {
+        code.invoke(INVOKEVIRTUAL, RUNTIME, "load", "(I)I", -1);
+    }
+
+    /**
+     * Na skladu so `runtime`, naslov in vrednost; vrednost zapiše na naslov.
+     */
+    private void generateStore() {
+        code.invoke(INVOKEVIRTUAL, RUNTIME, "store", "(II)V", -3);
+    }
+
+    // ----------- pomožne funkcije -----------
+
+    private ClassFileWriter.Label label(Frame.Label label) {
+        return labels.computeIfAbsent(label, __ -> new ClassFileWriter.Label());
+    }
+
+    private static boolean isComparison(BinopExpr.Operator op) {
+        switch (op) {
+            case EQ: case NEQ: case LT: case GT: case LEQ: case GEQ:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static int comparisonOpcode(BinopExpr.Operator op) {
+        switch (op) {
+            case EQ: return IF_ICMPEQ;
+            case NEQ: return IF_ICMPNE;
+            case LT: return IF_ICMPLT;
+            case GT: return IF_ICMPGT;
+            case LEQ: return IF_ICMPLE;
+            case GEQ: return IF_ICMPGE;
+            default:
+                throw new RuntimeException("Invalid binary operator!");
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ * @ Author: turk
+ * @ Description: Izvajalno okolje programov, prevedenih v bajtno kodo JVM.
+ */
+
+package compiler.jvm;
+
+import static common.RequireNonNull.requireNonNull;
+
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Random;
+
+import common.Constants;
+import compiler.gen.Memory;
+
+/**
+ * Naloži preveden program kot skrit razred in ga izvede.
+ *
+ * Javne metode tega razreda so 'standardna knjižnica', ki jo kliče
+ * prevedena koda.
+ */
+public class JvmRuntime {
+    /**
+     * Pomnilnik navideznega stroja (iz njega beremo nize, vanj po
+     * izvajanju prepišemo zapisane besede).
+     */
+    private Memory memory;
+
+    /**
+     * Izhodni tok, kamor izpisujemo rezultate izvajanja programa.
+     *
+     * V primeru, da rezultatov ne želimo izpisovati, nastavimo na `Optional.empty()`.
+     */
+    private Optional<PrintStream> outputStream;
+
+    /**
+     * Generator naključnih števil.
+     */
+    private Random random;
+
+    /**
+     * Besede s statičnimi podatki (globalne spremenljivke): beseda z
+     * indeksom `i` ima naslov `i * WordSize`.
+     */
+    private final Words data;
+
+    /**
+     * Besede sklada: beseda z indeksom `i` ima naslov `size - i * WordSize`
+     * (sklad raste proti nižjim naslovom, tabela pa po potrebi).
+     */
+    private final Words stack = new Words(1024);
+
+    /**
+     * Indeks besede z največjim naslovom (argument funkcije `main`).
+     */
+    private final int top;
+
+    /**
+     * @param dataEnd konec statičnih podatkov (glej `LinCodeGenerator.dataEnd`)
+     */
+    public JvmRuntime(Memory memory, int dataEnd, Optional<PrintStream> outputStream) {
+        requireNonNull(memory, outputStream);
+        this.memory = memory;
+        this.outputStream = outputStream;
+        this.data = new Words(Memory.wordIndex(dataEnd));
+        this.top = (int) (memory.size / Constants.WordSize);
+    }
+
+    /**
+     * Naloži in izvede preveden program.
+     *
+     * Program bere in piše besede prek `load` in `store`; po izvajanju
+     * zapisane besede shranimo v `memory`, da je vsebina pomnilnika (npr.
+     * posnetek `MappedMemory`) enaka kot pri drugih načinih izvajanja.
+     */
+    public void run(JvmGenerator.Program program) throws ReflectiveOperationException {
+        var lookup = MethodHandles.lookup().defineHiddenClass(program.classFile, true);
+        var main = lookup.findStatic(lookup.lookupClass(), JvmGenerator.MAIN,
+                MethodType.methodType(void.class, int.class, JvmRuntime.class));
+
+        var framePointer = (int) (memory.size - Constants.WordSize);
+        store(framePointer + Constants.WordSize, 999); // argument v funkcijo main
+        store(framePointer - program.main.oldFPOffset(), framePointer); // oldFP
+        try {
+            main.invokeExact(framePointer, this);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+        for (int index = 0; index < data.length(); index++) {
+            if (data.isWritten(index)) {
+                memory.stI(index * Constants.WordSize, data.get(index));
+            }
+        }
+        for (int index = 0; index < stack.length(); index++) {
+            if (stack.isWritten(index)) {
+                memory.stI((top - index) * Constants.WordSize, stack.get(index));
+            }
+        }
+    }
+
+    /**
+     * Preberi besedo z naslova `address`.
+     *
+     * Naslov preveri pomnilnik; besedo, ki je program še ni zapisal,
+     * preberemo iz pomnilnika, zato so napake (npr. branje prazne celice)
+     * enake kot pri drugih načinih izvajanja.
+     */
+    public int load(int address) {
+        memory.validateAddress(address);
+        var index = Memory.wordIndex(address);
+        var words = index < data.length() ? data : stack;
+        if (words != data) {
+            index = top - index;
+        }
+        if (words.isWritten(index)) {
+            return words.get(index);
+        }
+        var value = memory.ldI(address);
+        words.set(index, value);
+        return value;
+    }
+
+    /**
+     * Zapiši besedo `value` na naslov `address`.
+     */
+    public void store(int address, int value) {
+        memory.validateAddress(address);
+        var index = Memory.wordIndex(address);
+        if (index < data.length()) {
+            data.set(index, value);
+        } else {
+            stack.set(top - index, value);
+        }
+    }
+
+    /**
+     * Tabela besed z bitno množico zapisanih besed, ki se ob zapisu izven
+     * meja poveča.
+     */
+    private static final class Words {
+        private int[] words;
+        private long[] written;
+
+        Words(int length) {
+            words = new int[length];
+            written = new long[(length + 63) / 64];
+        }
+
+        int length() {
+            return words.length;
+        }
+
+        boolean isWritten(int index) {
+            return index < words.length && (written[index >>> 6] & (1L << index)) != 0;
+        }
+
+        int get(int index) {
+            return words[index];
+        }
+
+        void set(int index, int value) {
+            if (index >= words.length) {
+                var length = (int) Math.min(Math.max(2L * words.length, index + 1L), Integer.MAX_VALUE - 8);
+                words = Arrays.copyOf(words, length);
+                written = Arrays.copyOf(written, (length + 63) / 64);
+            }
+            words[index] = value;
+            written[index >>> 6] |= 1L << index;
+        }
+    }
+
+    // ----------- standardna knjižnica -----------
+
+    public void printInt(int value) {
+        outputStream.ifPresent(stream -> stream.println(value));
+    }
+
+    public void printString(int address) {
+        var res = memory.ldM(address);
+        outputStream.ifPresent(stream -> stream.println("\"" + res + "\""));
+    }
+
+    public void printLog(int value) {
+        outputStream.ifPresent(stream -> stream.println(value == 1));
+    }
+
+    public int randInt(int min, int max) {
+        return random.nextInt(min, max);
+    }
+
+    public void seed(int seed) {
+        random = new Random(seed);
+    }
+}
@@ -9,15 +9,21 @@ import static common.RequireNonNull.requireNonNull;
 import static compiler.lexer.TokenType.*;
 import compiler.lexer.Position.Location;
 
+import java.nio.CharBuffer;
 import java.util.*;
 
 import common.Report;
 
-public class Lexer {
+public class Lexer implements TokenStream {
     /**
      * Izvorna koda.
      */
-    private final String source;
+    private final CharSequence source;
+
+    /**
+     * Dolžina izvorne kode.
+     */
+    private final int length;
 
     /**
      * Preslikava iz ključnih besed v vrste simbolov.
@@ -96,19 +102,200 @@ public class Lexer {
     }
 
 
+    /**
+     * Razredi znakov.
+     */
+    private static final byte OTHER = 0;
+    private static final byte CARRIAGE_RETURN = 1;
+    private static final byte NEWLINE = 2;
+    private static final byte HASH = 3;
+    private static final byte QUOTE = 4;
+    private static final byte WHITESPACE = 5;
+    private static final byte OPERATOR = 6;
+    private static final byte SINGLE = 7;
+    private static final byte DIGIT = 8;
+
+    /**
+     * Razred za vsakega izmed prvih 256 znakov; za ostale znake se razred
+     * izračuna sproti (glej `charClass`).
+     */
+    private static final byte[] charClasses = new byte[256];
+
+    /**
+     * Ali je znak lahko del imena (črka, števka ali podčrtaj).
+     */
+    private static final boolean[] identifierParts = new boolean[256];
+
+    /**
+     * Vrsta simbola in lexem za enoznakovne operatorje oz. ločila.
+     */
+    private static final TokenType[] singleTokens = new TokenType[256];
+    private static final String[] singleLexemes = new String[256];
+
+    /**
+     * Vrsta simbola in lexem za operatorje oblike `X=` (indeks je prvi znak).
+     */
+    private static final TokenType[] assignTokens = new TokenType[256];
+    private static final String[] assignLexemes = new String[256];
+
+    /**
+     * Ključne besede (skupaj s tipi in logičnimi konstantami), razvrščene po dolžini.
+     */
+    private static final char[][][] keywords;
+    private static final TokenType[][] keywordTokens;
+    private static final String[][] keywordLexemes;
+
+    static {
+        for (int c = 0; c < 256; c++) {
+            charClasses[c] = classify((char) c);
+            identifierParts[c] = Character.isLetterOrDigit(c) || c == '_';
+        }
+        for (var entry : single_char_lexems.entrySet()) {
+            char c = entry.getKey();
+            singleTokens[c] = entry.getValue();
+            singleLexemes[c] = Character.toString(c).intern();
+        }
+        for (var entry : multi_char_op.entrySet()) {
+            var op = entry.getKey();
+            if (op.length() == 1) {
+                singleTokens[op.charAt(0)] = entry.getValue();
+                singleLexemes[op.charAt(0)] = op.intern();
+            } else {
+                assignTokens[op.charAt(0)] = entry.getValue();
+                assignLexemes[op.charAt(0)] = op.intern();
+            }
+        }
+
+        var words = new HashMap<String, TokenType>();
+        words.putAll(keywordMapping);
+        words.putAll(data_types);
+        words.put("true", C_LOGICAL);
+        words.put("false", C_LOGICAL);
+        int maxLength = words.keySet().stream().mapToInt(String::length).max().orElse(0);
+        keywords = new char[maxLength + 1][][];
+        keywordTokens = new TokenType[maxLength + 1][];
+        keywordLexemes = new String[maxLength + 1][];
+        for (int length = 0; length <= maxLength; length++) {
+            final int len = length;
+            var group = words.keySet().stream().filter(word -> word.length() == len).sorted().toList();
+            keywords[length] = new char[group.size()][];
+            keywordTokens[length] = new TokenType[group.size()];
+            keywordLexemes[length] = new String[group.size()];
+            for (int k = 0; k < group.size(); k++) {
+                keywords[length][k] = group.get(k).toCharArray();
+                keywordTokens[length][k] = words.get(group.get(k));
+                keywordLexemes[length][k] = group.get(k).intern();
+            }
+        }
+    }
+
+    private static byte classify(char c) {
+        if (c == 0xd) {
+            return CARRIAGE_RETURN;
+        } else if (c == 0xa) {
+            return NEWLINE;
+        } else if (c == '#') {
+            return HASH;
+        } else if (c == '\'') {
+            return QUOTE;
+        } else if (Character.isWhitespace(c)) {
+            return WHITESPACE;
+        } else if (multi_char_op.containsKey(Character.toString(c))) {
+            return OPERATOR;
+        } else if (single_char_lexems.containsKey(c)) {
+            return SINGLE;
+        } else if (Character.isDigit(c)) {
+            return DIGIT;
+        }
+        return OTHER;
+    }
+
+    private static byte charClass(char c) {
+        return c < 256 ? charClasses[c] : classify(c);
+    }
+
+    private static boolean isDigit(char c) {
+        return charClass(c) == DIGIT;
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return c < 256 ? identifierParts[c] : Character.isLetterOrDigit(c);
+    }
+
     /**
      * Ustvari nov analizator.
      *
      * @param source Izvorna koda programa.
      */
     public Lexer(String source) {
+        this((CharSequence) source);
+    }
+
+    /**
+     * Ustvari nov analizator nad tabelo znakov.
+     *
+     * Tabela se ne kopira; lexemi simbolov so rezine te tabele,
+     * zato je med uporabo simbolov ne smemo spreminjati.
+     *
+     * @param source Izvorna koda programa.
+     */
+    public Lexer(char[] source) {
+        this(CharBuffer.wrap(source));
+    }
+
+    /**
+     * Ustvari nov analizator nad poljubnim zaporedjem znakov
+     * (npr. datoteko, preslikano v pomnilnik, glej `MappedSource`).
+     *
+     * Zaporedje se ne kopira; lexemi simbolov so njegove rezine.
+     *
+     * @param source Izvorna koda programa.
+     */
+    public Lexer(CharSequence source) {
         requireNonNull(source);
         this.source = source;
+        this.length = source.length();
+    }
+
+    // Števci za branje (stanje posameznega analizatorja, zato lahko
+    // več analizatorjev hkrati teče v različnih nitih)
+
+    private int i = 0, line_index = 1, inline_start_index = 1, inline_stop_index = 1;
+
+    /**
+     * Ali smo trenutno znotraj komentarja.
+     */
+    private boolean comment = false;
+
+    // Zadnji prebrani simbol; iz teh polj se ustvari `Symbol` oz.
+    // se zapišejo v `TokenBuffer`
+
+    private TokenType tokenType;
+    private int tokenLine, tokenStartColumn, tokenEndColumn;
+
+    /**
+     * Začetek in dolžina lexema v izvorni kodi.
+     */
+    private int lexemeOffset, lexemeLength;
+
+    /**
+     * Vnaprej pripravljen lexem (ključne besede, operatorji, ...) ali `null`,
+     * če je lexem rezina izvorne kode.
+     */
+    private String lexeme;
+
+    /**
+     * Ali se lexem razlikuje od izvorne kode (niz z '' in `EOF`).
+     */
+    private boolean ownedLexeme;
+
+    private void reset() {
+        i = 0;
+        line_index = 1;
+        inline_start_index = 1;
+        inline_stop_index = 1;
+        comment = false;
     }
-    
-    // Števci za branje
-    
-    private static int i = 0, line_index = 1, inline_start_index = 1, inline_stop_index = 1;
 
     /**
      * Izvedi leksikalno analizo.
@@ -118,17 +305,157 @@ public class Lexer {
 
     public List<Symbol> scan() throws Exception {
         var symbols = new ArrayList<Symbol>();
-        // todo: implementacija leksikalne analize
-        boolean comment = false;
+        reset();
+        Symbol symbol;
+        do {
+            symbol = next();
+            symbols.add(symbol);
+        } while (symbol.tokenType != EOF);
+        return symbols;
+    }
 
-        for (; i < source.length(); i++, inline_start_index++, inline_stop_index++) {
+    /**
+     * Izvedi leksikalno analizo in simbole zapiši v kompakten `TokenBuffer`.
+     *
+     * Za posamezne simbole se ne ustvarijo objekti; `Symbol` se ustvari
+     * šele ob dostopu (glej `TokenBuffer.symbol`).
+     */
+    public TokenBuffer scanBuffer() {
+        var buffer = new TokenBuffer(source);
+        reset();
+        do {
+            advance();
+            addTo(buffer);
+        } while (tokenType != EOF);
+        buffer.trim();
+        return buffer;
+    }
+
+    /**
+     * Ponovno leksikalno analiziraj izvorno kodo po spremembi.
+     *
+     * Sprememba nadomesti `removedLength` znakov od odmika `offset` naprej
+     * z nizom `insertedText`. Analiza se začne pri zadnjem simbolu pred
+     * spremembo in se ustavi pri prvem simbolu za spremembo, ki se začne
+     * na istem (premaknjenem) mestu kot eden od prejšnjih simbolov - od tam
+     * naprej je izvorna koda enaka, zato se prejšnji simboli le premaknejo.
+     *
+     * Simbol ne sega čez več vrstic in komentar se konča s koncem vrstice,
+     * zato je na začetku simbola stanje analizatorja določeno že z vrstico
+     * in stolpcem simbola.
+     *
+     * @param previous simboli izvorne kode pred spremembo.
+     * @return simboli spremenjene izvorne kode.
+     */
+    public static TokenBuffer relex(TokenBuffer previous, int offset, int removedLength, String insertedText) {
+        requireNonNull(previous, insertedText);
+        var oldSource = previous.source();
+        var editEnd = offset + removedLength;
+        if (offset < 0 || removedLength < 0 || editEnd > oldSource.length()) {
+            throw new IllegalArgumentException("Edit out of source bounds!");
+        }
+        var delta = insertedText.length() - removedLength;
+        var newSource = new StringBuilder(oldSource.length() + delta)
+            .append(oldSource, 0, offset)
+            .append(insertedText)
+            .append(oldSource, editEnd, oldSource.length())
+            .toString();
+
+        // zadnji simbol, ki se začne pred spremembo (lahko se z njo podaljša)
+        int first = -1;
+        for (int low = 0, high = previous.size() - 1; low <= high; ) {
+            int middle = (low + high) >>> 1;
+            if (previous.start(middle) < offset) {
+                first = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        var buffer = new TokenBuffer(newSource);
+        var lexer = new Lexer(newSource);
+        if (first < 0) {
+            first = 0;
+        } else {
+            buffer.addShifted(previous, 0, first, 0, 0, -1, 0);
+            lexer.i = previous.start(first);
+            lexer.line_index = previous.startLine(first);
+            lexer.inline_start_index = previous.startColumn(first);
+            lexer.inline_stop_index = previous.startColumn(first);
+        }
+
+        // prvi prejšnji simbol, s katerim se lahko uskladimo
+        int next = first;
+        while (next < previous.size() && previous.start(next) < editEnd) {
+            next++;
+        }
+        while (true) {
+            lexer.advance();
+            var start = lexer.tokenStart();
+            while (next < previous.size() && previous.start(next) + delta < start) {
+                next++;
+            }
+            if (next < previous.size() && previous.start(next) + delta == start) {
+                var line = previous.startLine(next);
+                buffer.addShifted(previous, next, previous.size(), delta,
+                        lexer.tokenLine - line, line, lexer.tokenStartColumn - previous.startColumn(next));
+                break;
+            }
+            lexer.addTo(buffer);
+            if (lexer.tokenType == EOF) {
+                break;
+            }
+        }
+        buffer.trim();
+        return buffer;
+    }
+
+    private void addTo(TokenBuffer buffer) {
+        if (ownedLexeme) {
+            buffer.add(tokenType, tokenLine, tokenStartColumn, tokenLine, tokenEndColumn, lexemeOffset, lexeme);
+        } else {
+            buffer.add(tokenType, tokenLine, tokenStartColumn, tokenLine, tokenEndColumn, lexemeOffset, lexemeLength);
+        }
+    }
+
+    /**
+     * Odmik v izvorni kodi, kjer se zadnji prebrani simbol začne.
+     */
+    private int tokenStart() {
+        return tokenType == C_STRING ? lexemeOffset - 1 : lexemeOffset;
+    }
+
+    /**
+     * Prebere naslednji simbol.
+     *
+     * Analizator tako lahko služi kot tok simbolov, ki ga sintaksni
+     * analizator bere sproti, brez da bi hranili celoten seznam simbolov.
+     */
+    @Override
+    public Symbol next() {
+        advance();
+        var position = new Position(tokenLine, tokenStartColumn, tokenLine, tokenEndColumn);
+        if (lexeme != null) {
+            return new Symbol(position, tokenType, lexeme);
+        }
+        return new Symbol(position, tokenType, source, lexemeOffset, lexemeLength);
+    }
+
+    /**
+     * Prebere naslednji simbol v polja `tokenType`, `lexeme`, ...
+     */
+    private void advance() {
+        for (; i < length; i++, inline_start_index++, inline_stop_index++) {
+            var c = source.charAt(i);
+            var charClass = charClass(c);
             // Carriage return ignore
-            if ((int) source.charAt(i) == 0xd){
+            if (charClass == CARRIAGE_RETURN){
                 continue;
             }
 
             //Newline karakter
-            else if ((int) source.charAt(i) == 0xa) {
+            else if (charClass == NEWLINE) {
                 line_index++;
                 // Te dva indexa dam na 0, ker se newline porabi kot char in naslednjo
                 // loop iteracijo se povečata za 1
@@ -142,19 +469,19 @@ public class Lexer {
                 continue;
             }
 
-            else if (source.charAt(i) == '#') {
+            else if (charClass == HASH) {
                 comment = true;
                 continue;
             }
 
             //Stringi (največja prednost)
-            else if (source.charAt(i) == '\'') {
-                symbols.add(parseString(source));
+            else if (charClass == QUOTE) {
+                parseString();
             }
 
             //Belo besedilo (vržemo ven)
-            else if (Character.isWhitespace(source.charAt(i))){
-                if (source.charAt(i) == '\t'){
+            else if (charClass == WHITESPACE){
+                if (c == '\t'){
                     inline_stop_index += 3;
                     inline_start_index = inline_stop_index;
                 }
@@ -162,48 +489,92 @@ public class Lexer {
             }
 
             // Operatorji
-            else if (multi_char_op.containsKey(Character.toString(source.charAt(i)))){
-                symbols.add(parseMultiCharOperators(source));
+            else if (charClass == OPERATOR){
+                parseMultiCharOperators();
             }
 
             // Ujemi lekseme z samo enim znakom
-            else if (single_char_lexems.containsKey(source.charAt(i))) {
-                symbols.add(new Symbol(new Position(line_index, inline_start_index, line_index, inline_stop_index + 1),
-                        single_char_lexems.get(source.charAt(i)), Character.toString(source.charAt(i))));
+            else if (charClass == SINGLE) {
+                token(singleTokens[c], singleLexemes[c], i);
             }
 
             // Števila
-            else if (Character.isDigit(source.charAt(i))) {
-                symbols.add(parseInteger(source));
+            else if (charClass == DIGIT) {
+                parseInteger();
             }
 
             // KLjučne besede in imena
             else {
-                symbols.add(parseKeywordOrIdentifier(source));
+                parseKeywordOrIdentifier();
             }
 
             inline_start_index = inline_stop_index;
+            i++;
+            inline_start_index++;
+            inline_stop_index++;
+            return;
         }
 
         // Če ne dodamo EOF
-        symbols.add(
-                new Symbol(new Position(line_index, inline_start_index, line_index, inline_stop_index + 1), EOF, "$"));
-        return symbols;
+        ownedToken(EOF, "$", length);
+    }
+
+    /**
+     * Zapomni si simbol, katerega lexem je rezina izvorne kode.
+     */
+    private void token(TokenType type, int offset, int length) {
+        setPosition(type);
+        this.lexeme = null;
+        this.lexemeOffset = offset;
+        this.lexemeLength = length;
+        this.ownedLexeme = false;
+    }
+
+    /**
+     * Zapomni si simbol s pripravljenim lexemom, ki se v izvorni kodi
+     * začne na `offset`.
+     */
+    private void token(TokenType type, String lexeme, int offset) {
+        setPosition(type);
+        this.lexeme = lexeme;
+        this.lexemeOffset = offset;
+        this.lexemeLength = lexeme.length();
+        this.ownedLexeme = false;
+    }
+
+    /**
+     * Zapomni si simbol, katerega lexem se začne na `offset`, a ni enak
+     * izvorni kodi.
+     */
+    private void ownedToken(TokenType type, String lexeme, int offset) {
+        setPosition(type);
+        this.lexeme = lexeme;
+        this.lexemeOffset = offset;
+        this.lexemeLength = lexeme.length();
+        this.ownedLexeme = true;
+    }
+
+    private void setPosition(TokenType type) {
+        this.tokenType = type;
+        this.tokenLine = line_index;
+        this.tokenStartColumn = inline_start_index;
+        this.tokenEndColumn = inline_stop_index + 1;
     }
 
     // Metoda za preverjanje stringov
-    private static Symbol parseString(String source) {
-        // Gradim string
-        String tempString = "";
-        // Ponavljam dokler i + 2 < length() ali pa da je na koncu ''
-        while ((i + 2) < source.length()
-                && (source.charAt(i + 1) != '\'' || (source.charAt(i + 1) == '\'' && source.charAt(i + 2) == '\''))) {
+    private void parseString() {
+        // Začetek vsebine niza; dokler ne naletimo na '' je lexem rezina izvorne kode
+        int start = i + 1;
+        boolean escaped = false;
+        // Ponavljam dokler i + 2 < length ali pa da je na koncu ''
+        while ((i + 2) < length
+                && (source.charAt(i + 1) != '\'' || source.charAt(i + 2) == '\'')) {
             // Če je string in če notri zaznamo napačne ASCII simbole potem error
             if(!((int) source.charAt(i + 1) >= 32 && (int) source.charAt(i + 1) <= 126))
                 Report.error(new Position(line_index,inline_start_index, line_index, inline_stop_index), "Strings should only contain ASCII characters between the values of 32 and 126 inclusive!");
             // Če je znak enak ' potem prištejemo stop indeks in povečamo i
             if (source.charAt(i + 1) == '\'') {
-                tempString += source.charAt(i + 1);
+                escaped = true;
                 i += 2;
                 inline_stop_index += 2;
             }
@@ -212,104 +583,87 @@ public class Lexer {
                 Report.error(new Position(line_index, inline_start_index, line_index, inline_stop_index + 1),
                         "String, se ne zaključi z končnim \' znakom!");
             }
-            // Če je vse v redu samo dodamo v tempString in prištejemo števce
+            // Če je vse v redu samo premaknemo števce
             else {
-                tempString += source.charAt(i + 1);
                 i++;
                 inline_stop_index++;
             }
         }
         // Če je stringa konec in na koncu ni znaka ' vržemo error za napačno zaključen string
-        if (!((i + 1) < source.length() && source.charAt(i + 1) == '\''))
+        if (!((i + 1) < length && source.charAt(i + 1) == '\''))
             Report.error(new Position(line_index, inline_start_index, line_index, inline_stop_index + 1),
                     "String, se ne zaključi z končnim \' znakom!");
+        int end = i + 1;
         // Drugače povečamo števce in dodamo simbol
         i++;
         inline_stop_index++;
-        return (new Symbol(new Position(line_index, inline_start_index, line_index, inline_stop_index + 1),
-                C_STRING, tempString));
+        if (escaped) {
+            ownedToken(C_STRING, source.subSequence(start, end).toString().replace("''", "'"), start);
+        } else {
+            token(C_STRING, start, end - start);
+        }
     }
 
     // Operatorji
-    private static Symbol parseMultiCharOperators(String source) {
+    private void parseMultiCharOperators() {
+        int start = i;
+        var c = source.charAt(i);
         // Če je znak po znaku enak = potem imamo operator z 2 znakoma
-        if ((i + 1) < source.length() && source.charAt(i + 1) == '=') {
-            // Sestavimo token
-            StringBuffer token_key = new StringBuffer().append(source.charAt(i)).append(source.charAt(i + 1));
+        if ((i + 1) < length && source.charAt(i + 1) == '=') {
             i++;
             inline_stop_index++;
-            return (new Symbol(new Position(line_index, inline_start_index, line_index, inline_stop_index + 1),
-                    multi_char_op.get(token_key.toString()), token_key.toString()));
+            token(assignTokens[c], assignLexemes[c], start);
         }
         // Če ne imamo operator z enim znakom. Znak samo dodamo med simbole
         else {
-            return (new Symbol(new Position(line_index, inline_start_index, line_index, inline_stop_index + 1),
-                    multi_char_op.get(Character.toString(source.charAt(i))),
-                    Character.toString(source.charAt(i))));
+            token(singleTokens[c], singleLexemes[c], start);
         }
     }
 
     // Števila
-    private static Symbol parseInteger(String source) {
-        // Sestavljamo število
-        String tempString = "";
-        tempString += source.charAt(i);
+    private void parseInteger() {
+        int start = i;
         // Ponavljamo dokler je naslednji znak števka
-        while ((i + 1) < source.length() && Character.isDigit(source.charAt(i + 1))) {
-            tempString += source.charAt(i + 1);
+        while ((i + 1) < length && isDigit(source.charAt(i + 1))) {
             i++;
             inline_stop_index++;
         }
-        // Če ni števka potem error
-        if (!Character.isDigit(source.charAt(i))) {
-            Report.error(new Position(line_index, inline_start_index, line_index, inline_stop_index),
-                    "Ime se ne sme začeti z številom, ali pa število ne sme vsebovati črke");
+        token(C_INTEGER, start, i + 1 - start);
+    }
+
+    /**
+     * Ali se izvorna koda od `start` naprej ujema z besedo `word`.
+     */
+    private boolean regionMatches(int start, char[] word) {
+        for (int k = 0; k < word.length; k++) {
+            if (source.charAt(start + k) != word[k]) {
+                return false;
+            }
         }
-        // Če ne dodamo število med simbole
-        return (new Symbol(new Position(line_index, inline_start_index, line_index, inline_stop_index + 1),
-                C_INTEGER, tempString));
+        return true;
     }
 
     // Preverjanje imen in ključnih besed
-    private static Symbol parseKeywordOrIdentifier(String source) {
-        // Sestavljamo besedo
-        String tempString = "";
-        tempString += source.charAt(i);
+    private void parseKeywordOrIdentifier() {
+        int start = i;
         // Ponavljamo dokler je znak črka ali števka ali podčrtaj
-        while ((i + 1) < source.length()
-                && (Character.isLetterOrDigit(source.charAt(i + 1)) || (int) source.charAt(i + 1) == 95)) {
-            tempString += source.charAt(i + 1);
+        while ((i + 1) < length && isIdentifierPart(source.charAt(i + 1))) {
             i++;
             inline_stop_index++;
         }
-
-        // Uporabimo metodo za preverjanje dobljene besede
-        TokenType tkn_Type = assignTokenType(tempString);
-        // Dodaj besedo med simbole
-        return (new Symbol(new Position(line_index, inline_start_index, line_index, inline_stop_index + 1),
-                tkn_Type,
-                tempString));
-    }
-
-    // Preverjanje dobljene besede
-    private static TokenType assignTokenType(String tempString) {
-        // Preveri ali je keyword
-        if (keywordMapping.containsKey(tempString)) {
-            return keywordMapping.get(tempString);
-        }
-        // Preveri ali je podatkovni tip
-        else if (data_types.containsKey(tempString)) {
-            return data_types.get(tempString);
-        }
-        // Preveri če je true ali false vrednost
-        else if (tempString.equals("true") || tempString.equals("false")) {
-            return C_LOGICAL;
+        int wordLength = i + 1 - start;
+
+        // Preveri ali je beseda ključna beseda, podatkovni tip ali logična konstanta
+        if (wordLength < keywords.length) {
+            var candidates = keywords[wordLength];
+            for (int k = 0; k < candidates.length; k++) {
+                if (regionMatches(start, candidates[k])) {
+                    token(keywordTokens[wordLength][k], keywordLexemes[wordLength][k], start);
+                    return;
+                }
+            }
         }
         // Če ne, je ime
-        else {
-            return IDENTIFIER;
-        }
+        token(IDENTIFIER, start, wordLength);
     }
-
-
 }
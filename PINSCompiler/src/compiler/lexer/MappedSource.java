@@ -0,0 +1,102 @@
+/**
+ * @ Author: turk
+ * @ Description: Izvorna koda, preslikana v pomnilnik.
+ */
+
+package compiler.lexer;
+
+import static common.RequireNonNull.requireNonNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Zaporedje znakov nad datoteko, ki je s `FileChannel.map` preslikana v pomnilnik.
+ *
+ * Vsak bajt predstavlja en znak ASCII, zato se datoteka ne kopira
+ * niti dekodira - analizator bere neposredno iz preslikanih bajtov.
+ */
+public final class MappedSource implements CharSequence {
+    private final ByteBuffer bytes;
+    private final int offset;
+    private final int length;
+
+    private MappedSource(ByteBuffer bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Preslika datoteko v pomnilnik.
+     *
+     * Če datoteka vsebuje le znake ASCII, vrne `MappedSource` nad preslikanimi
+     * bajti, sicer pa preslikano vsebino dekodira kot UTF-8.
+     *
+     * @param path pot do izvorne datoteke.
+     */
+    public static CharSequence open(Path path) throws IOException {
+        requireNonNull(path);
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Source file " + path + " is too large!");
+            }
+            // preslikava ostane veljavna tudi po zaprtju kanala
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (isAscii(buffer)) {
+                return new MappedSource(buffer, 0, (int) size);
+            }
+            return StandardCharsets.UTF_8.newDecoder().decode(buffer);
+        }
+    }
+
+    private static boolean isAscii(ByteBuffer buffer) {
+        int i = 0;
+        int limit = buffer.limit();
+        // osem bajtov naenkrat
+        for (; i + Long.BYTES <= limit; i += Long.BYTES) {
+            if ((buffer.getLong(i) & 0x8080808080808080L) != 0) {
+                return false;
+            }
+        }
+        for (; i < limit; i++) {
+            if (buffer.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return (char) bytes.get(offset + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("[" + start + ", " + end + ")");
+        }
+        return new MappedSource(bytes, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        var chars = new byte[length];
+        bytes.get(offset, chars);
+        return new String(chars, StandardCharsets.US_ASCII);
+    }
+}
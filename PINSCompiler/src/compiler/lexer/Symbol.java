@@ -20,8 +20,18 @@ public class Symbol {
 
     /**
      * Znakovna predstavitev simbola.
+     *
+     * Če je simbol ustvarjen kot rezina izvorne kode, se niz ustvari
+     * šele ob prvi uporabi (glej `lexeme()`).
      */
-    public final String lexeme;
+    private String lexeme;
+
+    /**
+     * Rezina izvorne kode, ki predstavlja simbol.
+     */
+    private final CharSequence source;
+    private final int offset;
+    private final int length;
 
     /**
      * Ustvari nov leksikalni simbol.
@@ -35,6 +45,30 @@ public class Symbol {
         this.position = position;
         this.tokenType = tokenType;
         this.lexeme = lexeme;
+        this.source = null;
+        this.offset = 0;
+        this.length = lexeme.length();
+    }
+
+    /**
+     * Ustvari nov leksikalni simbol, katerega lexem je rezina izvorne kode.
+     *
+     * @param position Območje, ki ga simbol zajema v izvorni datoteki.
+     * @param tokenType Vrsta simbola.
+     * @param source Izvorna koda.
+     * @param offset Začetek lexema v izvorni kodi.
+     * @param length Dolžina lexema.
+     */
+    public Symbol(Position position, TokenType tokenType, CharSequence source, int offset, int length) {
+        requireNonNull(position, tokenType, source);
+        if (offset < 0 || length < 0 || offset + length > source.length()) {
+            throw new IllegalArgumentException("Lexeme out of source bounds!");
+        }
+        this.position = position;
+        this.tokenType = tokenType;
+        this.source = source;
+        this.offset = offset;
+        this.length = length;
     }
 
     /**
@@ -49,14 +83,40 @@ public class Symbol {
         this(new Position(startLocation, endLocation), tokenType, lexeme);
     }
 
+    /**
+     * Znakovna predstavitev simbola.
+     */
+    public String lexeme() {
+        if (lexeme == null) {
+            lexeme = source.subSequence(offset, offset + length).toString();
+        }
+        return lexeme;
+    }
+
     @Override
     public String toString() {
         if (tokenType == TokenType.EOF) {
-            return tokenType + ":" + lexeme;
+            return tokenType + ":" + lexeme();
         }
-        return position.toString()+" "+tokenType + ":" + lexeme;
+        return position.toString()+" "+tokenType + ":" + lexeme();
     }
 
-    // @todo:
-    // override equals() and hashCode() ?
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof Symbol other) {
+            return this.tokenType == other.tokenType
+                && this.lexeme().equals(other.lexeme())
+                && this.position.equals(other.position);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        var result = 17;
+        result = 31 * result + position.hashCode();
+        result = 31 * result + tokenType.hashCode();
+        result = 31 * result + lexeme().hashCode();
+        return result;
+    }
 }
@@ -0,0 +1,281 @@
+/**
+ * @ Author: turk
+ * @ Description: Kompakten zapis leksikalnih simbolov.
+ */
+
+package compiler.lexer;
+
+import static common.RequireNonNull.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Simboli, zapisani v vzporednih tabelah primitivnih vrednosti.
+ *
+ * Posamezen simbol ne zasede nobenega objekta: hranimo le vrsto simbola,
+ * območje v izvorni datoteki in rezino izvorne kode, ki predstavlja lexem.
+ * `Symbol` se ustvari šele ob dostopu (glej `symbol(int)`).
+ */
+public final class TokenBuffer {
+    private static final TokenType[] tokenTypes = TokenType.values();
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Izvorna koda, katere rezine so lexemi simbolov.
+     */
+    private final CharSequence source;
+
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private int[] startLines = new int[INITIAL_CAPACITY];
+    private int[] startColumns = new int[INITIAL_CAPACITY];
+    private int[] endColumns = new int[INITIAL_CAPACITY];
+
+    /**
+     * Končne vrstice simbolov, ki segajo čez več vrstic; za vse ostale
+     * je končna vrstica enaka začetni.
+     */
+    private final Map<Integer, Integer> endLines = new HashMap<>();
+
+    /**
+     * Začetek in dolžina lexema v izvorni kodi.
+     *
+     * Če je dolžina negativna, lexem ni enak izvorni kodi (npr. niz z ''),
+     * zato je zapisan v `lexemes` na indeksu `-length - 1`.
+     */
+    private int[] offsets = new int[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+
+    private final List<String> lexemes = new ArrayList<>();
+
+    private int size = 0;
+
+    public TokenBuffer(CharSequence source) {
+        requireNonNull(source);
+        if (tokenTypes.length > Byte.MAX_VALUE) {
+            throw new IllegalStateException("Too many token types for a byte!");
+        }
+        this.source = source;
+    }
+
+    /**
+     * Dodaj simbol, katerega lexem je rezina izvorne kode.
+     */
+    void add(TokenType type, int startLine, int startColumn, int endLine, int endColumn, int offset, int length) {
+        requireNonNull(type);
+        if (offset < 0 || length < 0 || offset + length > source.length()) {
+            throw new IllegalArgumentException("Lexeme out of source bounds!");
+        }
+        append(type, startLine, startColumn, endLine, endColumn, offset, length);
+    }
+
+    /**
+     * Dodaj simbol, katerega lexem se začne na `offset`, a ni enak izvorni kodi.
+     */
+    void add(TokenType type, int startLine, int startColumn, int endLine, int endColumn, int offset, String lexeme) {
+        requireNonNull(type, lexeme);
+        if (offset < 0 || offset > source.length()) {
+            throw new IllegalArgumentException("Lexeme out of source bounds!");
+        }
+        append(type, startLine, startColumn, endLine, endColumn, offset, -lexemes.size() - 1);
+        lexemes.add(lexeme);
+    }
+
+    /**
+     * Dodaj simbole `from`, ..., `to - 1` iz `other`, premaknjene za
+     * `offsetDelta` znakov in `lineDelta` vrstic; simbolom v vrstici
+     * `columnLine` (pred premikom) se stolpci premaknejo za `columnDelta`.
+     */
+    void addShifted(TokenBuffer other, int from, int to, int offsetDelta, int lineDelta, int columnLine, int columnDelta) {
+        requireNonNull(other);
+        var count = to - from;
+        if (size + count > types.length) {
+            resize(Math.max(size + count, types.length + (types.length >> 1)));
+        }
+        System.arraycopy(other.types, from, types, size, count);
+        System.arraycopy(other.startLines, from, startLines, size, count);
+        System.arraycopy(other.startColumns, from, startColumns, size, count);
+        System.arraycopy(other.endColumns, from, endColumns, size, count);
+        System.arraycopy(other.offsets, from, offsets, size, count);
+        System.arraycopy(other.lengths, from, lengths, size, count);
+        for (int k = size; k < size + count; k++) {
+            offsets[k] += offsetDelta;
+        }
+        // simboli so urejeni po vrsticah, zato so simboli v vrstici
+        // `columnLine` na začetku
+        for (int k = size; k < size + count && startLines[k] == columnLine; k++) {
+            startColumns[k] += columnDelta;
+            if (!other.endLines.containsKey(from + k - size)) {
+                endColumns[k] += columnDelta;
+            }
+        }
+        if (lineDelta != 0) {
+            for (int k = size; k < size + count; k++) {
+                startLines[k] += lineDelta;
+            }
+        }
+        for (var entry : other.endLines.entrySet()) {
+            var k = entry.getKey();
+            if (k >= from && k < to) {
+                endLines.put(size + k - from, entry.getValue() + lineDelta);
+                if (entry.getValue() == columnLine) {
+                    endColumns[size + k - from] += columnDelta;
+                }
+            }
+        }
+        // lexemi, ki niso rezine izvorne kode
+        for (int k = size; k < size + count; k++) {
+            if (lengths[k] < 0) {
+                lengths[k] = -lexemes.size() - 1;
+                lexemes.add(other.lexemes.get(-other.lengths[from + k - size] - 1));
+            }
+        }
+        size += count;
+    }
+
+    private void append(TokenType type, int startLine, int startColumn, int endLine, int endColumn, int offset, int length) {
+        if (size == types.length) {
+            grow();
+        }
+        types[size] = (byte) type.ordinal();
+        startLines[size] = startLine;
+        startColumns[size] = startColumn;
+        if (endLine != startLine) {
+            endLines.put(size, endLine);
+        }
+        endColumns[size] = endColumn;
+        offsets[size] = offset;
+        lengths[size] = length;
+        size++;
+    }
+
+    private void grow() {
+        resize(types.length + (types.length >> 1));
+    }
+
+    /**
+     * Zmanjšaj tabele na število simbolov.
+     */
+    void trim() {
+        if (size < types.length) {
+            resize(size);
+        }
+    }
+
+    private void resize(int capacity) {
+        types = Arrays.copyOf(types, capacity);
+        startLines = Arrays.copyOf(startLines, capacity);
+        startColumns = Arrays.copyOf(startColumns, capacity);
+        endColumns = Arrays.copyOf(endColumns, capacity);
+        offsets = Arrays.copyOf(offsets, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+    }
+
+    /**
+     * Število simbolov.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Izvorna koda, nad katero so bili simboli prebrani.
+     */
+    public CharSequence source() {
+        return source;
+    }
+
+    /**
+     * Odmik v izvorni kodi, kjer se simbol začne (pri nizih je to
+     * začetni narekovaj, ki ni del lexema).
+     */
+    int start(int index) {
+        checkIndex(index);
+        return types[index] == TokenType.C_STRING.ordinal() ? offsets[index] - 1 : offsets[index];
+    }
+
+    public TokenType tokenType(int index) {
+        checkIndex(index);
+        return tokenTypes[types[index]];
+    }
+
+    public int startLine(int index) {
+        checkIndex(index);
+        return startLines[index];
+    }
+
+    public int startColumn(int index) {
+        checkIndex(index);
+        return startColumns[index];
+    }
+
+    public int endLine(int index) {
+        checkIndex(index);
+        return endLines.getOrDefault(index, startLines[index]);
+    }
+
+    public int endColumn(int index) {
+        checkIndex(index);
+        return endColumns[index];
+    }
+
+    /**
+     * Znakovna predstavitev simbola.
+     */
+    public String lexeme(int index) {
+        checkIndex(index);
+        if (lengths[index] < 0) {
+            return lexemes.get(-lengths[index] - 1);
+        }
+        return source.subSequence(offsets[index], offsets[index] + lengths[index]).toString();
+    }
+
+    /**
+     * Ustvari `Symbol` za simbol na mestu `index`.
+     *
+     * Lexem ustvarjenega simbola je rezina izvorne kode, zato se niz
+     * ustvari šele, ko ga potrebujemo.
+     */
+    public Symbol symbol(int index) {
+        checkIndex(index);
+        var position = new Position(startLines[index], startColumns[index], endLine(index), endColumns[index]);
+        if (lengths[index] < 0) {
+            return new Symbol(position, tokenTypes[types[index]], lexemes.get(-lengths[index] - 1));
+        }
+        return new Symbol(position, tokenTypes[types[index]], source, offsets[index], lengths[index]);
+    }
+
+    /**
+     * Tok simbolov nad tem zapisom.
+     *
+     * Simboli se ustvarjajo sproti, zato sintaksni analizator naenkrat
+     * drži le nekaj objektov `Symbol`.
+     */
+    public TokenStream stream() {
+        if (size == 0 || tokenType(size - 1) != TokenType.EOF) {
+            throw new IllegalStateException("Token buffer must end with EOF!");
+        }
+        return new TokenStream() {
+            private int index = 0;
+
+            @Override
+            public Symbol next() {
+                var symbol = symbol(index);
+                if (index + 1 < size) {
+                    index++;
+                }
+                return symbol;
+            }
+        };
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * @ Author: turk
+ * @ Description: Tok leksikalnih simbolov.
+ */
+
+package compiler.lexer;
+
+import static common.RequireNonNull.requireNonNull;
+
+import java.util.List;
+
+/**
+ * Vir simbolov, iz katerega sintaksni analizator bere simbol za simbolom.
+ */
+public interface TokenStream {
+    /**
+     * Vrne naslednji simbol.
+     *
+     * Ko je tok izčrpan, vsak nadaljnji klic vrne simbol `EOF`.
+     */
+    Symbol next();
+
+    /**
+     * Ustvari tok nad že izračunanim seznamom simbolov.
+     *
+     * @param symbols seznam simbolov, ki se zaključi s simbolom `EOF`.
+     */
+    static TokenStream of(List<Symbol> symbols) {
+        requireNonNull(symbols);
+        if (symbols.isEmpty() || symbols.get(symbols.size() - 1).tokenType != TokenType.EOF) {
+            throw new IllegalArgumentException("Symbols must end with EOF!");
+        }
+        return new TokenStream() {
+            private int index = 0;
+
+            @Override
+            public Symbol next() {
+                var symbol = symbols.get(index);
+                if (index + 1 < symbols.size()) {
+                    index++;
+                }
+                return symbol;
+            }
+        };
+    }
+}
@@ -12,11 +12,15 @@ import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import common.Diagnostic;
 import common.Report;
 import compiler.lexer.Position;
 import compiler.lexer.Symbol;
+import compiler.lexer.TokenBuffer;
+import compiler.lexer.TokenStream;
 import compiler.lexer.TokenType;
 import compiler.parser.ast.Ast;
+import compiler.parser.ast.NodeIds;
 import compiler.parser.ast.def.*;
 import compiler.parser.ast.expr.*;
 import compiler.parser.ast.type.Array;
@@ -26,9 +30,18 @@ import compiler.parser.ast.type.TypeName;
 
 public class Parser {
     /**
-     * Seznam leksikalnih simbolov.
+     * Tok leksikalnih simbolov.
      */
-    private final List<Symbol> symbols;
+    private final TokenStream symbols;
+
+    /**
+     * Okno simbolov okoli trenutnega simbola (`index`): prejšnji,
+     * trenutni in naslednji simbol. Naslednji simbol se prebere
+     * šele, ko ga potrebujemo.
+     */
+    private Symbol previous;
+    private Symbol current;
+    private Symbol following;
 
     /**
      * Ciljni tok, kamor izpisujemo produkcije. Če produkcij ne želimo izpisovati,
@@ -36,10 +49,71 @@ public class Parser {
      */
     private final Optional<PrintStream> productionsOutputStream;
 
+    /**
+     * Dodeljevalec identifikatorjev vozlišč zgrajenega drevesa.
+     */
+    private final NodeIds ids;
+
+    /**
+     * Ali se po napaki opomoremo (glej `parseRecovering`).
+     */
+    private boolean recovering = false;
+
+    /**
+     * Napake, zbrane med analizo v načinu `parseRecovering`.
+     */
+    private final List<Diagnostic> diagnostics = new ArrayList<>();
+
+    /**
+     * Število odprtih oklepajev (`(`, `[` in `{`) med prebranimi simboli.
+     */
+    private int depth = 0;
+
+    /**
+     * Ali smo se pravkar sinhronizirali in še nismo prebrali nobenega simbola.
+     */
+    private boolean justSynchronized = false;
+
+    /**
+     * Izjema, s katero se po napaki vrnemo do najbližje točke sinhronizacije.
+     */
+    private static class SyntaxError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        SyntaxError() {
+            super(null, null, false, false);
+        }
+    }
+
     public Parser(List<Symbol> symbols, Optional<PrintStream> productionsOutputStream) {
-        requireNonNull(symbols, productionsOutputStream);
+        this(TokenStream.of(symbols), productionsOutputStream);
+    }
+
+    /**
+     * Ustvari sintaksni analizator nad kompaktnim zapisom simbolov.
+     */
+    public Parser(TokenBuffer symbols, Optional<PrintStream> productionsOutputStream) {
+        this(symbols.stream(), productionsOutputStream);
+    }
+
+    /**
+     * Ustvari sintaksni analizator, ki simbole bere sproti iz toka.
+     */
+    public Parser(TokenStream symbols, Optional<PrintStream> productionsOutputStream) {
+        this(symbols, productionsOutputStream, new NodeIds());
+    }
+
+    /**
+     * Ustvari sintaksni analizator, ki simbole bere sproti iz toka,
+     * vozliščem drevesa pa identifikatorje dodeljuje `ids` (njegov
+     * `count()` je po analizi število vozlišč drevesa).
+     */
+    public Parser(TokenStream symbols, Optional<PrintStream> productionsOutputStream, NodeIds ids) {
+        requireNonNull(symbols, productionsOutputStream, ids);
         this.symbols = symbols;
         this.productionsOutputStream = productionsOutputStream;
+        this.ids = ids;
+        this.current = symbols.next();
     }
 
     /**
@@ -47,7 +121,7 @@ public class Parser {
      */
     public Ast parse() {
         var ast = parseSource();
-        if (symbols.get(index).tokenType != EOF && symbols.get(index + 1).tokenType == EOF){
+        if (peek() != EOF && getter(index + 1).tokenType == EOF){
             error();
 
         }
@@ -55,13 +129,116 @@ public class Parser {
     }
 
 
+    /**
+     * Izvedi sintaksno analizo, ki se po napaki opomore.
+     *
+     * Napake se zbirajo v `diagnostics()`; analizator po napaki preskoči
+     * simbole do `;`, `}`, `)` oz. ključne besede `typ`, `fun` ali `var`
+     * (panic mode) in nadaljuje. Vrne delno drevo, v katerem manjkajo
+     * definicije in izrazi z napakami.
+     */
+    public Ast parseRecovering() {
+        recovering = true;
+        if (peek() == EOF) {
+            report();
+            return new Defs(ids, current.position, new ArrayList<>());
+        }
+        var ast = parseSource();
+        while (peek() != EOF) {
+            // odvečni simboli za zadnjo definicijo, npr. `}` brez para
+            if (!justSynchronized) {
+                report();
+            }
+            skip();
+            depth = 0;
+            synchronizeDefinition(0);
+            ast.definitions.addAll(parseDefinitions2(new ArrayList<>()));
+        }
+        return ast;
+    }
+
+    /**
+     * Napake, zbrane med analizo v načinu `parseRecovering`.
+     */
+    public List<Diagnostic> diagnostics() {
+        return diagnostics;
+    }
+
     public void error(){
+        if (recovering) {
+            report();
+            throw new SyntaxError();
+        }
         Report.error("Napaka v sintaksi!");
-        System.exit(99);
+    }
+
+    /**
+     * Zabeleži napako pri trenutnem simbolu.
+     */
+    private void report() {
+        var message = peek() == EOF
+            ? "Napaka v sintaksi: nepričakovan konec datoteke!"
+            : "Napaka v sintaksi: nepričakovan simbol '" + current.lexeme() + "'!";
+        diagnostics.add(new Diagnostic(current.position, message));
+    }
+
+    private static boolean isDefinitionKeyword(TokenType type) {
+        return type == KW_TYP || type == KW_FUN || type == KW_VAR;
+    }
+
+    /**
+     * Po napaki v definiciji preskoči simbole do `;` ali do začetka
+     * naslednje definicije; znotraj `{ where ... }` se ustavi tudi pri `}`.
+     *
+     * @param base število odprtih oklepajev na začetku definicije.
+     */
+    private void synchronizeDefinition(int base) {
+        while (peek() != EOF) {
+            if (peek() == OP_SEMICOLON || isDefinitionKeyword(peek())) {
+                // `;` in ključne besede definicij se pojavijo le med definicijami
+                depth = base;
+                break;
+            }
+            if (peek() == OP_RBRACE && depth == base && base > 0) {
+                break;
+            }
+            skip();
+        }
+        justSynchronized = true;
+    }
+
+    /**
+     * Po napaki v izrazu znotraj `( ... )` preskoči simbole do `,` ali `)`.
+     * Če naletimo na konec definicije, se napaka prenese naprej.
+     *
+     * @param base število odprtih oklepajev na začetku izraza.
+     */
+    private void synchronizeExpression(int base) {
+        while (peek() != EOF) {
+            if (depth == base && (peek() == OP_COMMA || peek() == OP_RPARENT)) {
+                justSynchronized = true;
+                return;
+            }
+            if (peek() == OP_SEMICOLON || isDefinitionKeyword(peek()) || (peek() == OP_RBRACE && depth == base)) {
+                break;
+            }
+            skip();
+        }
+        throw new SyntaxError();
     }
 
     public Symbol getter(int i){
-        return symbols.get(i);
+        if (i == index) {
+            return current;
+        } else if (i == index - 1 && previous != null) {
+            return previous;
+        } else if (i == index + 1) {
+            if (following == null) {
+                following = symbols.next();
+            }
+            return following;
+        }
+        throw new IllegalArgumentException("Symbol " + i + " is outside of the parser window!");
     }
 
     public int getStartLine(int i){
@@ -82,15 +259,26 @@ public class Parser {
 
     int index = 0;
     public TokenType peek(){
-        return symbols.get(index).tokenType;
+        return current.tokenType;
     }
     public void skip(){
+        if (recovering) {
+            switch (peek()) {
+                case OP_LPARENT, OP_LBRACKET, OP_LBRACE -> depth++;
+                case OP_RPARENT, OP_RBRACKET, OP_RBRACE -> depth = Math.max(0, depth - 1);
+                default -> {}
+            }
+            justSynchronized = false;
+        }
+        previous = current;
+        current = following != null ? following : symbols.next();
+        following = null;
         index++;
     }
 
-    private Ast parseSource() {
+    private Defs parseSource() {
         // TODO: - rekurzivno spuščanje
-        if (symbols.size() == 1) {
+        if (peek() == EOF) {
             error();
         } else {
             dump("source -> definitions");
@@ -104,13 +292,34 @@ public class Parser {
         int startl = getter(index).position.start.line;
         int startcol = getter(index).position.start.column;
         List<Def> def = new ArrayList<>();
-        def.add(parseDefinition());
+        addDefinition(def);
         var defs2 = parseDefinitions2(def);
-        return new Defs(new Position(startl,startcol,
+        if (defs2.isEmpty()) {
+            // vse definicije so imele napake (parseRecovering)
+            return new Defs(ids, new Position(startl, startcol, startl, startcol), def);
+        }
+        return new Defs(ids, new Position(startl,startcol,
                 defs2.get(def.size() - 1).position.end.line, defs2.get(def.size() - 1).position.end.column),
                 def);
     }
 
+    /**
+     * Razčleni definicijo in jo doda v seznam; v načinu `parseRecovering`
+     * se definicija z napako izpusti.
+     */
+    private void addDefinition(List<Def> def) {
+        if (!recovering) {
+            def.add(parseDefinition());
+            return;
+        }
+        int base = depth;
+        try {
+            def.add(parseDefinition());
+        } catch (SyntaxError __) {
+            synchronizeDefinition(base);
+        }
+    }
+
     private Def parseDefinition(){
         int startl = getStartLine(index);
         int startcol = getStartColumn(index);
@@ -136,12 +345,12 @@ public class Parser {
     private VarDef parseVariable_definition(int startl, int startcol){
         dump("variable_definition -> var identifier : type");
         if (peek() == IDENTIFIER){
-            String name = getter(index).lexeme;
+            String name = getter(index).lexeme();
             skip();
             if (peek() == OP_COLON){
                 skip();
                 var type = parseType();
-                return new VarDef(new Position(startl, startcol, type.position.end.line, type.position.end.column),
+                return new VarDef(ids, new Position(startl, startcol, type.position.end.line, type.position.end.column),
                         name, type);
             } else error();
         } else error(); return null;
@@ -149,7 +358,7 @@ public class Parser {
     private FunDef parseFunction_definition(int startl, int startcol){
         dump("function_definition -> fun identifier ( parameters ) : type = expression");
         if (peek() == IDENTIFIER){
-            String name = getter(index).lexeme;
+            String name = getter(index).lexeme();
             skip();
             if (peek() == OP_LPARENT){
                 skip();
@@ -163,7 +372,7 @@ public class Parser {
                         if (peek() == OP_ASSIGN){
                             skip();
                             var expr = parseExpression();
-                            return new FunDef(new Position(startl, startcol, getEndLine(index-1),
+                            return new FunDef(ids, new Position(startl, startcol, getEndLine(index-1),
                                     getEndColumn(index-1)), name, parameters, type, expr);
                         } else error();
                     } else error();
@@ -187,7 +396,7 @@ public class Parser {
                 var defs = parseDefinitions();
                 if (peek() == OP_RBRACE){
                     skip();
-                    return new Where(new Position(leftExpression.position.start.line,
+                    return new Where(ids, new Position(leftExpression.position.start.line,
                             leftExpression.position.start.column, getEndLine(index-1),
                             getEndColumn(index-1)), leftExpression, defs);
                 } else error(); return null;
@@ -210,7 +419,7 @@ public class Parser {
             dump("logical_ior_expression2 -> | logical_and_expression logical_ior_expression2");
             skip();
             var right = parseLogical_and_expression();
-            var binary = new Binary(new Position(leftExpression.position.start.line,
+            var binary = new Binary(ids, new Position(leftExpression.position.start.line,
                     leftExpression.position.start.column, right.position.end.line, right.position.end.column),
                     leftExpression, Binary.Operator.OR, right);
             return parseLogical_ior_expression2(binary);
@@ -231,7 +440,7 @@ public class Parser {
             dump("logical_and_expression2 -> & compare_expression logical_and_expression2");
             skip();
             var right = parseCompare_expression();
-            var binary = new Binary(new Position(leftExpression.position.start.line,
+            var binary = new Binary(ids, new Position(leftExpression.position.start.line,
                     leftExpression.position.start.column, right.position.end.line, right.position.end.column),
                     leftExpression, Binary.Operator.AND, right);
             return parseLogical_and_expression2(binary);
@@ -253,7 +462,7 @@ public class Parser {
             dump("compare_expression2 -> == additive_expression");
             skip();
             var right = parseAdditive_expression();
-            var binary = new Binary(new Position(leftExpression.position.start.line,
+            var binary = new Binary(ids, new Position(leftExpression.position.start.line,
                     leftExpression.position.start.column, right.position.end.line, right.position.end.column),
                     leftExpression, Binary.Operator.EQ, right);
             return binary;
@@ -261,7 +470,7 @@ public class Parser {
             dump("compare_expression2 -> != additive_expression");
             skip();
             var right = parseAdditive_expression();
-            var binary = new Binary(new Position(leftExpression.position.start.line,
+            var binary = new Binary(ids, new Position(leftExpression.position.start.line,
                     leftExpression.position.start.column, right.position.end.line, right.position.end.column),
                     leftExpression, Binary.Operator.NEQ, right);
             return binary;
@@ -269,7 +478,7 @@ public class Parser {
             dump("compare_expression2 -> <= additive_expression");
             skip();
             var right = parseAdditive_expression();
-            var binary = new Binary(new Position(leftExpression.position.start.line,
+            var binary = new Binary(ids, new Position(leftExpression.position.start.line,
                     leftExpression.position.start.column, right.position.end.line, right.position.end.column),
                     leftExpression, Binary.Operator.LEQ, right);
             return binary;
@@ -277,7 +486,7 @@ public class Parser {
             dump("compare_expression2 -> >= additive_expression");
             skip();
             var right = parseAdditive_expression();
-            var binary = new Binary(new Position(leftExpression.position.start.line,
+            var binary = new Binary(ids, new Position(leftExpression.position.start.line,
                     leftExpression.position.start.column, right.position.end.line, right.position.end.column),
                     leftExpression, Binary.Operator.GEQ, right);
             return binary;
@@ -285,7 +494,7 @@ public class Parser {
             dump("compare_expression2 -> < additive_expression");
             skip();
             var right = parseAdditive_expression();
-            var binary = new Binary(new Position(leftExpression.position.start.line,
+            var binary = new Binary(ids, new Position(leftExpression.position.start.line,
                     leftExpression.position.start.column, right.position.end.line, right.position.end.column),
                     leftExpression, Binary.Operator.LT, right);
             return binary;
@@ -293,7 +502,7 @@ public class Parser {
             dump("compare_expression2 -> > additive_expression");
             skip();
             var right = parseAdditive_expression();
-            var binary = new Binary(new Position(leftExpression.position.start.line,
+            var binary = new Binary(ids, new Position(leftExpression.position.start.line,
                     leftExpression.position.start.column, right.position.end.line, right.position.end.column), leftExpression, Binary.Operator.GT, right);
             return binary;
         }
@@ -314,7 +523,7 @@ public class Parser {
             dump("additive_expression2 -> + multiplicative_expression additive_expression2");
             skip();
             var right = parseMultiplicative_expression();
-            var binary = new Binary(new Position(leftExpression.position.start.line,
+            var binary = new Binary(ids, new Position(leftExpression.position.start.line,
                     leftExpression.position.start.column, right.position.end.line, right.position.end.column),
                     leftExpression, Binary.Operator.ADD, right);
             return parseAdditive_expression2(binary);
@@ -322,7 +531,7 @@ public class Parser {
             dump("additive_expression2 -> - multiplicative_expression additive_expression2");
             skip();
             var right = parseMultiplicative_expression();
-            var binary = new Binary(new Position(leftExpression.position.start.line,
+            var binary = new Binary(ids, new Position(leftExpression.position.start.line,
                     leftExpression.position.start.column, right.position.end.line, right.position.end.column),
                     leftExpression, Binary.Operator.SUB, right);
             return parseAdditive_expression2(binary);
@@ -344,7 +553,7 @@ public class Parser {
             dump("multiplicative_expression2 -> * prefix_expression multiplicative_expression2");
             skip();
             var right = parsePrefix_expression();
-            var binary = new Binary(new Position(leftExpression.position.start.line,
+            var binary = new Binary(ids, new Position(leftExpression.position.start.line,
                     leftExpression.position.start.column, right.position.end.line, right.position.end.column),
                     leftExpression, Binary.Operator.MUL, right);
             return parseMultiplicative_expression2(binary);
@@ -352,7 +561,7 @@ public class Parser {
             dump("multiplicative_expression2 -> / prefix_expression multiplicative_expression2");
             skip();
             var right = parsePrefix_expression();
-            var binary = new Binary(new Position(leftExpression.position.start.line,
+            var binary = new Binary(ids, new Position(leftExpression.position.start.line,
                     leftExpression.position.start.column, right.position.end.line, right.position.end.column),
                     leftExpression, Binary.Operator.DIV, right);
             return parseMultiplicative_expression2(binary);
@@ -360,7 +569,7 @@ public class Parser {
             dump("multiplicative_expression2 -> % prefix_expression multiplicative_expression2");
             skip();
             var right = parsePrefix_expression();
-            var binary = new Binary(new Position(leftExpression.position.start.line,
+            var binary = new Binary(ids, new Position(leftExpression.position.start.line,
                     leftExpression.position.start.column, right.position.end.line, right.position.end.column),
                     leftExpression, Binary.Operator.MOD, right);
             return parseMultiplicative_expression2(binary);
@@ -378,19 +587,19 @@ public class Parser {
             dump("prefix_expression -> + prefix_expression");
             skip();
             var prefix = parsePrefix_expression();
-            return new Unary(new Position(startl, startcol, prefix.position.end.line, prefix.position.end.column),
+            return new Unary(ids, new Position(startl, startcol, prefix.position.end.line, prefix.position.end.column),
                     prefix, Unary.Operator.ADD);
         } else if (peek() == OP_SUB) {
             dump("prefix_expression -> - prefix_expression");
             skip();
             var prefix = parsePrefix_expression();
-            return new Unary(new Position(startl, startcol, prefix.position.end.line, prefix.position.end.column),
+            return new Unary(ids, new Position(startl, startcol, prefix.position.end.line, prefix.position.end.column),
                     prefix, Unary.Operator.SUB);
         } else if (peek() == OP_NOT) {
             dump("prefix_expression -> ! prefix_expression");
             skip();
             var prefix = parsePrefix_expression();
-            return new Unary(new Position(startl, startcol,prefix.position.end.line, prefix.position.end.column),
+            return new Unary(ids, new Position(startl, startcol,prefix.position.end.line, prefix.position.end.column),
                     prefix, Unary.Operator.NOT);
         }
         else {
@@ -412,7 +621,7 @@ public class Parser {
             var right = parseExpression();
             if (peek() == OP_RBRACKET){
                 skip();
-                var binary = new Binary(new Position(leftExpression.position.start.line,
+                var binary = new Binary(ids, new Position(leftExpression.position.start.line,
                         leftExpression.position.start.column, getEndLine(index -1), getEndColumn(index - 1)),
                         leftExpression, Binary.Operator.ARR, right);
                 return parsePostfix_expression2(binary);
@@ -433,17 +642,17 @@ public class Parser {
         if (peek() == C_LOGICAL){
             skip();
             dump("atom_expression -> log_constant");
-            return new Literal(poz, getter(index-1).lexeme, Atom.Type.LOG);
+            return new Literal(ids, poz, getter(index-1).lexeme(), Atom.Type.LOG);
         } else if (peek() == C_INTEGER) {
             skip();
             dump("atom_expression -> int_constant");
-            return new Literal(poz, getter(index-1).lexeme, Atom.Type.INT);
+            return new Literal(ids, poz, getter(index-1).lexeme(), Atom.Type.INT);
         } else if (peek() == C_STRING) {
             skip();
             dump("atom_expression -> string_constant");
-            return new Literal(poz, getter(index-1).lexeme, Atom.Type.STR);
+            return new Literal(ids, poz, getter(index-1).lexeme(), Atom.Type.STR);
         } else if (peek() == IDENTIFIER){
-            var left = getter(index).lexeme;
+            var left = getter(index).lexeme();
             skip();
             dump("atom_expression -> identifier atom_expression2");
             return parseAtom_expression2(left, startl, startcol);
@@ -458,10 +667,10 @@ public class Parser {
             var exprs = parseExpressions(block);
             if (peek() == OP_RPARENT){
                 skip();
-                return new Block(new Position(startl, startcol, getEndLine(index - 1),
+                return new Block(ids, new Position(startl, startcol, getEndLine(index - 1),
                         getEndColumn(index - 1)), block);
             } else error();
-        }
+        } else error();
         return null;
     }
 
@@ -484,7 +693,7 @@ public class Parser {
                 var expr1 = parseExpression();
                 if (peek() ==  OP_RBRACE){
                     skip();
-                    return new While(new Position(startl, startcol,
+                    return new While(ids, new Position(startl, startcol,
                             getEndLine(index - 1), getEndColumn(index - 1)), expr, expr1);
                 } else error();
             } else error();
@@ -495,7 +704,7 @@ public class Parser {
             if (peek() == IDENTIFIER){
                 Position poz1 = new Position(getStartLine(index), getStartColumn(index), getEndLine(index),
                         getEndColumn(index));
-                Name name = new Name(poz1, getter(index).lexeme);
+                Name name = new Name(ids, poz1, getter(index).lexeme());
                 skip();
                 if (peek() == OP_ASSIGN){
                     skip();
@@ -511,7 +720,7 @@ public class Parser {
                                 var expr4 = parseExpression();
                                 if (peek() == OP_RBRACE){
                                     skip();
-                                    return new For(new Position(startl, startcol,
+                                    return new For(ids, new Position(startl, startcol,
                                             getEndLine(index - 1), getEndColumn(index - 1)),
                                             name, expr1, expr2, expr3, expr4);
                                 } else error();
@@ -528,7 +737,7 @@ public class Parser {
                 var expr2 = parseExpression();
                 if (peek() == OP_RBRACE){
                     skip();
-                    return new Binary(new Position(startl, startcol,
+                    return new Binary(ids, new Position(startl, startcol,
                             getEndLine(index - 1), getEndColumn(index - 1)), expr1, Binary.Operator.ASSIGN, expr2);
                 } else error();
             } else error();
@@ -540,7 +749,7 @@ public class Parser {
         if (peek() == OP_RBRACE){
             dump("atom_expression4 -> }");
             skip();
-            return new IfThenElse(new Position(startl, startcol,
+            return new IfThenElse(ids, new Position(startl, startcol,
                     getEndLine(index - 1), getEndColumn(index - 1)), expr, expr1);
         }else if (peek() == KW_ELSE){
             dump("atom_expression4 -> else expression }");
@@ -548,10 +757,10 @@ public class Parser {
             var expr2 = parseExpression();
             if (peek() == OP_RBRACE){
                 skip();
-                return new IfThenElse(new Position(startl, startcol,
+                return new IfThenElse(ids, new Position(startl, startcol,
                         getEndLine(index - 1), getEndColumn(index - 1)), expr, expr1, expr2);
             } else error();
-        }
+        } else error();
         return null;
     }
 
@@ -565,23 +774,39 @@ public class Parser {
             var args = parseExpressions(block);
             if (peek() == OP_RPARENT){
                 skip();
-                return new Call(new Position(startl, startcol,
+                return new Call(ids, new Position(startl, startcol,
                         getEndLine(index - 1), getEndColumn(index - 1)), args, name);
             } else error(); return null;
         }
         else{
             dump("atom_expression2 -> e");
-            return new Name(new Position(startl, startcol, getEndLine(index -1), getEndColumn(index - 1)), name);
+            return new Name(ids, new Position(startl, startcol, getEndLine(index -1), getEndColumn(index - 1)), name);
         }
     }
 
     private List<Expr> parseExpressions(List<Expr> block){
         dump("expressions -> expression expressions2");
-        var expr = parseExpression();
-        block.add(expr);
+        addExpression(block);
         return parseExpressions2(block);
     }
 
+    /**
+     * Razčleni izraz in ga doda v seznam; v načinu `parseRecovering`
+     * se izraz z napako izpusti.
+     */
+    private void addExpression(List<Expr> block) {
+        if (!recovering) {
+            block.add(parseExpression());
+            return;
+        }
+        int base = depth;
+        try {
+            block.add(parseExpression());
+        } catch (SyntaxError __) {
+            synchronizeExpression(base);
+        }
+    }
+
 
     private List<Expr> parseExpressions2(List<Expr> block){
         Position poz = new Position(getStartLine(index), getStartColumn(index), getEndLine(index),
@@ -610,12 +835,12 @@ public class Parser {
         int startcol = getStartColumn(index);
         dump("parameter -> identifier : type");
         if (peek() == IDENTIFIER){
-            String ime = getter(index).lexeme;
+            String ime = getter(index).lexeme();
             skip();
             if (peek() == OP_COLON){
                 skip();
                 var type = parseType();
-                return new FunDef.Parameter(new Position(startl, startcol, type.position.end.line,
+                return new FunDef.Parameter(ids, new Position(startl, startcol, type.position.end.line,
                         type.position.end.column), ime, type);
             } else error();
         } else error();
@@ -637,12 +862,12 @@ public class Parser {
     private TypeDef parseType_definition(int startl, int startcol){
         dump("type_definition -> typ identifier : type");
         if (peek() == IDENTIFIER){
-            String ime = getter(index).lexeme;
+            String ime = getter(index).lexeme();
             skip();
             if (peek() == OP_COLON){
                 skip();
                 var type = parseType();
-                return new TypeDef(new Position(startl,startcol,type.position.end.line, type.position.end.column),
+                return new TypeDef(ids, new Position(startl,startcol,type.position.end.line, type.position.end.column),
                         ime, type);
             } else error();
         } else error();
@@ -653,23 +878,23 @@ public class Parser {
 
         Position poz = new Position(getStartLine(index), getStartColumn(index), getEndLine(index), getEndColumn(index));
 
-        String lex = getter(index).lexeme;
+        String lex = getter(index).lexeme();
         if (peek() == IDENTIFIER){
             skip();
             dump("type -> identifier");
-            return new TypeName(poz, lex);
+            return new TypeName(ids, poz, lex);
         } else if (peek() == AT_LOGICAL) {
             skip();
             dump("type -> logical");
-            return Atom.LOG(poz);
+            return Atom.LOG(ids, poz);
         } else if (peek() == AT_INTEGER) {
             skip();
             dump("type -> integer ");
-            return Atom.INT(poz);
+            return Atom.INT(ids, poz);
         } else if (peek() == AT_STRING) {
             skip();
             dump("type -> string");
-            return Atom.STR(poz);
+            return Atom.STR(ids, poz);
         } else if (peek() == KW_ARR) {
             int startArrLine = getStartLine(index);
             int startArrCol = getStartColumn(index);
@@ -677,18 +902,18 @@ public class Parser {
             if (peek() == OP_LBRACKET) {
                 skip();
                 if (peek() == C_INTEGER) {
-                    int size = Integer.parseInt(getter(index).lexeme);
+                    int size = Integer.parseInt(getter(index).lexeme());
                     skip();
                     if (peek() == OP_RBRACKET) {
                         skip();
                         dump("type -> arr [ int_const ] type");
                         var type = parseType();
-                        return new Array(new Position(startArrLine,startArrCol,type.position.end.line,
+                        return new Array(ids, new Position(startArrLine,startArrCol,type.position.end.line,
                                 type.position.end.column), size, type);
                     } else error();
                 } else error();
             } else error();
-        }
+        } else error();
         return null;
     }
 
@@ -696,15 +921,37 @@ public class Parser {
         if (peek() == OP_SEMICOLON){
             skip();
             if (peek() == EOF){
+                if (recovering) {
+                    report();
+                    return def;
+                }
                 error();
             }
             dump("definitions2 -> ; definition definitions2");
-            def.add(parseDefinition());
+            addDefinition(def);
+            return parseDefinitions2(def);
+        }
+        else if (recovering) {
+            if (peek() == EOF || (peek() == OP_RBRACE && depth > 0)) {
+                dump("definitions2 -> e");
+                return def;
+            }
+            // manjkajoč `;` pred definicijo oz. odvečni simboli
+            if (!justSynchronized) {
+                report();
+            }
+            if (isDefinitionKeyword(peek())) {
+                addDefinition(def);
+            } else {
+                int base = depth;
+                skip();
+                synchronizeDefinition(base);
+            }
             return parseDefinitions2(def);
         }
         else{
             if (peek() != EOF && peek() != OP_RBRACE){
-                if (symbols.get(index + 1).tokenType != EOF){
+                if (getter(index + 1).tokenType != EOF){
                     error();
                 }
             }
@@ -14,13 +14,24 @@ public abstract class Ast {
      */
 	public final Position position;
 
+    /**
+     * Zaporedna številka vozlišča v drevesu.
+     *
+     * Vozlišča drevesa dobijo identifikatorje od istega `NodeIds`, zato so
+     * oštevilčena z 0, 1, 2, ... in lahko `NodeDescription` vrednosti
+     * hrani v tabeli, indeksirani z `id`.
+     */
+    public final int id;
+
 	/**
 	 * Ustvari novo vozlišče.
 	 * 
+	 * @param ids Dodeljevalec identifikatorjev vozlišč drevesa.
 	 * @param pos Lokacija.
 	 */
-	public Ast(Position position) {
+	public Ast(NodeIds ids, Position position) {
 		this.position = position;
+		this.id = ids.next();
 	}
 
     /**
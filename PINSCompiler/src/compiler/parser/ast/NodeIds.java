@@ -0,0 +1,35 @@
+/**
+ * @ Author: turk
+ * @ Description: Dodeljevanje identifikatorjev vozlišč.
+ */
+
+package compiler.parser.ast;
+
+/**
+ * Identifikatorje vozlišč enega drevesa dodeljuje en `NodeIds`: vozlišča
+ * so oštevilčena z 0, 1, 2, ... v vrstnem redu nastanka, zato lahko
+ * `NodeDescription` vrednosti hrani v tabeli, indeksirani z `Ast.id`.
+ *
+ * Vozlišča različnih dreves z različnimi dodeljevalci imajo lahko enake
+ * identifikatorje, zato opisov enega drevesa ne uporabljamo za drugega.
+ */
+public class NodeIds {
+    /**
+     * Identifikator naslednjega vozlišča.
+     */
+    private int count = 0;
+
+    /**
+     * Dodeli nov identifikator.
+     */
+    int next() {
+        return count++;
+    }
+
+    /**
+     * Število dodeljenih identifikatorjev (vsi `id` so manjši od te vrednosti).
+     */
+    public int count() {
+        return count;
+    }
+}
@@ -9,6 +9,7 @@ package compiler.parser.ast.def;
 import static common.RequireNonNull.requireNonNull;
 
 import compiler.lexer.Position;
+import compiler.parser.ast.NodeIds;
 import compiler.parser.ast.Ast;
 
 public abstract class Def extends Ast {
@@ -17,8 +18,8 @@ public abstract class Def extends Ast {
      */
     public final String name;
 
-    public Def(Position position, String name) {
-        super(position);
+    public Def(NodeIds ids, Position position, String name) {
+        super(ids, position);
         requireNonNull(name);
         this.name = name;
     }
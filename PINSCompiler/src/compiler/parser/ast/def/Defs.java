@@ -11,6 +11,7 @@ import java.util.List;
 
 import compiler.common.Visitor;
 import compiler.lexer.Position;
+import compiler.parser.ast.NodeIds;
 import compiler.parser.ast.Ast;
 
 public class Defs extends Ast {
@@ -19,8 +20,8 @@ public class Defs extends Ast {
      */
     public final List<Def> definitions;
 
-    public Defs(Position position, List<Def> definitions) {
-        super(position);
+    public Defs(NodeIds ids, Position position, List<Def> definitions) {
+        super(ids, position);
         requireNonNull(definitions);
         this.definitions = definitions;
     }
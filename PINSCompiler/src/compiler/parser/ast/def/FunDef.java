@@ -9,6 +9,7 @@ import static common.RequireNonNull.requireNonNull;
 
 import compiler.common.Visitor;
 import compiler.lexer.Position;
+import compiler.parser.ast.NodeIds;
 
 import java.util.List;
 
@@ -31,8 +32,8 @@ public class FunDef extends Def {
      */
     public final Expr body;
 
-    public FunDef(Position position, String name, List<Parameter> parameters, Type type, Expr body) {
-        super(position, name);
+    public FunDef(NodeIds ids, Position position, String name, List<Parameter> parameters, Type type, Expr body) {
+        super(ids, position, name);
         requireNonNull(parameters);
         requireNonNull(type);
         requireNonNull(body);
@@ -52,8 +53,8 @@ public class FunDef extends Def {
          */
         public final Type type;
     
-        public Parameter(Position position, String name, Type type) {
-            super(position, name);
+        public Parameter(NodeIds ids, Position position, String name, Type type) {
+            super(ids, position, name);
             requireNonNull(type);
             this.type = type;
         }
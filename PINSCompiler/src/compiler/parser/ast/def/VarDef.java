@@ -9,6 +9,7 @@ import static common.RequireNonNull.requireNonNull;
 
 import compiler.common.Visitor;
 import compiler.lexer.Position;
+import compiler.parser.ast.NodeIds;
 import compiler.parser.ast.type.Type;
 
 public class VarDef extends Def {
@@ -17,8 +18,8 @@ public class VarDef extends Def {
      */
     public final Type type;
 
-    public VarDef(Position position, String name, Type type) {
-        super(position, name);
+    public VarDef(NodeIds ids, Position position, String name, Type type) {
+        super(ids, position, name);
         requireNonNull(type);
         this.type = type;
     }
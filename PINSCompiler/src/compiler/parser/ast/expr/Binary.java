@@ -9,6 +9,7 @@ import static common.RequireNonNull.requireNonNull;
 
 import compiler.common.Visitor;
 import compiler.lexer.Position;
+import compiler.parser.ast.NodeIds;
 
 public class Binary extends Expr {
     /**
@@ -26,8 +27,8 @@ public class Binary extends Expr {
      */
     public final Expr right;
 
-    public Binary(Position position, Expr left, Operator operator, Expr right) {
-        super(position);
+    public Binary(NodeIds ids, Position position, Expr left, Operator operator, Expr right) {
+        super(ids, position);
         requireNonNull(left);
         requireNonNull(operator);
         requireNonNull(right);
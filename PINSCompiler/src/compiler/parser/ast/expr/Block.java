@@ -9,6 +9,7 @@ import static common.RequireNonNull.requireNonNull;
 
 import compiler.common.Visitor;
 import compiler.lexer.Position;
+import compiler.parser.ast.NodeIds;
 
 import java.util.List;
 
@@ -18,8 +19,8 @@ public class Block extends Expr {
      */
     public final List<Expr> expressions;
 
-    public Block(Position position, List<Expr> expressions) {
-        super(position);
+    public Block(NodeIds ids, Position position, List<Expr> expressions) {
+        super(ids, position);
         requireNonNull(expressions);
         this.expressions = expressions;
     }
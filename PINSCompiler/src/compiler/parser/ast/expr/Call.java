@@ -9,6 +9,7 @@ import static common.RequireNonNull.requireNonNull;
 
 import compiler.common.Visitor;
 import compiler.lexer.Position;
+import compiler.parser.ast.NodeIds;
 
 import java.util.List;
 
@@ -23,8 +24,8 @@ public class Call extends Expr {
      */
     public final String name;
 
-    public Call(Position position, List<Expr> arguments, String name) {
-        super(position);
+    public Call(NodeIds ids, Position position, List<Expr> arguments, String name) {
+        super(ids, position);
         requireNonNull(arguments);
         requireNonNull(name);
         this.arguments = arguments;
@@ -7,10 +7,11 @@
 package compiler.parser.ast.expr;
 
 import compiler.lexer.Position;
+import compiler.parser.ast.NodeIds;
 import compiler.parser.ast.Ast;
 
 public abstract class Expr extends Ast {
-    public Expr(Position position) {
-        super(position);
+    public Expr(NodeIds ids, Position position) {
+        super(ids, position);
     }
 }
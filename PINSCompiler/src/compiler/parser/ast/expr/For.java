@@ -9,6 +9,7 @@ import static common.RequireNonNull.requireNonNull;
 
 import compiler.common.Visitor;
 import compiler.lexer.Position;
+import compiler.parser.ast.NodeIds;
 
 public class For extends Expr {
     /**
@@ -36,8 +37,8 @@ public class For extends Expr {
      */
     public final Expr body;    
 
-    public For(Position position, Name counter, Expr low, Expr high, Expr step, Expr body) {
-        super(position);
+    public For(NodeIds ids, Position position, Name counter, Expr low, Expr high, Expr step, Expr body) {
+        super(ids, position);
         requireNonNull(counter);
         requireNonNull(low);
         requireNonNull(high);
@@ -9,6 +9,7 @@ import static common.RequireNonNull.requireNonNull;
 
 import compiler.common.Visitor;
 import compiler.lexer.Position;
+import compiler.parser.ast.NodeIds;
 
 import java.util.Optional;
 
@@ -32,8 +33,8 @@ public class IfThenElse extends Expr {
     /**
      * Ustvari nov `If-Then` izraz.
      */
-    public IfThenElse(Position position, Expr condition, Expr thenExpression) {
-        super(position);
+    public IfThenElse(NodeIds ids, Position position, Expr condition, Expr thenExpression) {
+        super(ids, position);
         requireNonNull(condition);
         requireNonNull(thenExpression);
         this.condition = condition;
@@ -44,8 +45,8 @@ public class IfThenElse extends Expr {
     /**
      * Ustvari nov `If-Then-Else` izraz.
      */
-    public IfThenElse(Position position, Expr condition, Expr thenExpression, Expr elseExpression) {
-        super(position);
+    public IfThenElse(NodeIds ids, Position position, Expr condition, Expr thenExpression, Expr elseExpression) {
+        super(ids, position);
         requireNonNull(condition);
         requireNonNull(thenExpression);
         requireNonNull(elseExpression);
@@ -60,8 +61,8 @@ public class IfThenElse extends Expr {
      * Če je vrednost parametra `elseExpression` enaka `Optional.empty`()`,
      * potem gre za `If-Then` izraz, sicer za `If-Then-Else` izraz.
      */
-    public IfThenElse(Position position, Expr condition, Expr thenExpression, Optional<Expr> elseExpression) {
-        super(position);
+    public IfThenElse(NodeIds ids, Position position, Expr condition, Expr thenExpression, Optional<Expr> elseExpression) {
+        super(ids, position);
         requireNonNull(condition);
         requireNonNull(thenExpression);
         requireNonNull(elseExpression);
@@ -9,6 +9,7 @@ import static common.RequireNonNull.requireNonNull;
 
 import compiler.common.Visitor;
 import compiler.lexer.Position;
+import compiler.parser.ast.NodeIds;
 import compiler.parser.ast.type.Atom;
 
 public class Literal extends Expr {
@@ -22,8 +23,8 @@ public class Literal extends Expr {
      */
     public final Atom.Type type;
 
-    public Literal(Position position, String value, Atom.Type type) {
-        super(position);
+    public Literal(NodeIds ids, Position position, String value, Atom.Type type) {
+        super(ids, position);
         requireNonNull(value);
         requireNonNull(type);
         this.value = value;
@@ -9,6 +9,7 @@ import static common.RequireNonNull.requireNonNull;
 
 import compiler.common.Visitor;
 import compiler.lexer.Position;
+import compiler.parser.ast.NodeIds;
 
 public class Name extends Expr {
     /**
@@ -16,8 +17,8 @@ public class Name extends Expr {
      */
     public final String name;
 
-    public Name(Position position, String name) {
-        super(position);
+    public Name(NodeIds ids, Position position, String name) {
+        super(ids, position);
         requireNonNull(name);
         this.name = name;
     }
@@ -9,6 +9,7 @@ import static common.RequireNonNull.requireNonNull;
 
 import compiler.common.Visitor;
 import compiler.lexer.Position;
+import compiler.parser.ast.NodeIds;
 
 public class Unary extends Expr {
     /**
@@ -21,8 +22,8 @@ public class Unary extends Expr {
      */
     public final Operator operator;
 
-    public Unary(Position position, Expr expr, Operator operator) {
-        super(position);
+    public Unary(NodeIds ids, Position position, Expr expr, Operator operator) {
+        super(ids, position);
         requireNonNull(expr);
         requireNonNull(operator);
         this.expr = expr;
@@ -9,6 +9,7 @@ import static common.RequireNonNull.requireNonNull;
 
 import compiler.common.Visitor;
 import compiler.lexer.Position;
+import compiler.parser.ast.NodeIds;
 import compiler.parser.ast.def.Defs;
 
 public class Where extends Expr {
@@ -22,8 +23,8 @@ public class Where extends Expr {
      */
     public final Defs defs;
 
-    public Where(Position position, Expr expr, Defs defs) {
-        super(position);
+    public Where(NodeIds ids, Position position, Expr expr, Defs defs) {
+        super(ids, position);
         requireNonNull(expr);
         requireNonNull(defs);
         this.expr = expr;
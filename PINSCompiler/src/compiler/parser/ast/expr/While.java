@@ -9,6 +9,7 @@ import static common.RequireNonNull.requireNonNull;
 
 import compiler.common.Visitor;
 import compiler.lexer.Position;
+import compiler.parser.ast.NodeIds;
 
 public class While extends Expr {
     /**
@@ -21,8 +22,8 @@ public class While extends Expr {
      */
     public final Expr body;
 
-    public While(Position position, Expr condition, Expr body) {
-        super(position);
+    public While(NodeIds ids, Position position, Expr condition, Expr body) {
+        super(ids, position);
         requireNonNull(condition);
         requireNonNull(body);
         this.condition = condition;
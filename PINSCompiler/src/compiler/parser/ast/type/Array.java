@@ -9,6 +9,7 @@ import static common.RequireNonNull.requireNonNull;
 
 import compiler.common.Visitor;
 import compiler.lexer.Position;
+import compiler.parser.ast.NodeIds;
 
 public class Array extends Type {
     /**
@@ -21,8 +22,8 @@ public class Array extends Type {
      */
     public final Type type;
 
-    public Array(Position position, int size, Type type) {
-        super(position);
+    public Array(NodeIds ids, Position position, int size, Type type) {
+        super(ids, position);
         requireNonNull(size);
         requireNonNull(type);
         this.size = size;
@@ -9,6 +9,7 @@ import static common.RequireNonNull.requireNonNull;
 
 import compiler.common.Visitor;
 import compiler.lexer.Position;
+import compiler.parser.ast.NodeIds;
 
 public class Atom extends Type {
     /**
@@ -16,8 +17,8 @@ public class Atom extends Type {
      */
     public final Type type;
 
-    private Atom(Position position, Type type) {
-        super(position);
+    private Atom(NodeIds ids, Position position, Type type) {
+        super(ids, position);
         requireNonNull(type);
         this.type = type;
     }
@@ -25,22 +26,22 @@ public class Atom extends Type {
     /**
      * Vrne nov atomarni tip integer.
      */
-    public static Atom INT(Position position) {
-        return new Atom(position, Type.INT);
+    public static Atom INT(NodeIds ids, Position position) {
+        return new Atom(ids, position, Type.INT);
     }
 
     /**
      * Vrne nov atomarni tip logical.
      */
-    public static Atom LOG(Position position) {
-        return new Atom(position, Type.LOG);
+    public static Atom LOG(NodeIds ids, Position position) {
+        return new Atom(ids, position, Type.LOG);
     }
 
     /**
      * Vrne nov atomarni tip string.
      */
-    public static Atom STR(Position position) {
-        return new Atom(position, Type.STR);
+    public static Atom STR(NodeIds ids, Position position) {
+        return new Atom(ids, position, Type.STR);
     }
 
 	@Override public void accept(Visitor visitor) { visitor.visit(this); }
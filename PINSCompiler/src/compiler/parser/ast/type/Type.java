@@ -7,10 +7,11 @@
 package compiler.parser.ast.type;
 
 import compiler.lexer.Position;
+import compiler.parser.ast.NodeIds;
 import compiler.parser.ast.Ast;
 
 public abstract class Type extends Ast {
-    public Type(Position position) {
-        super(position);
+    public Type(NodeIds ids, Position position) {
+        super(ids, position);
     }
 }
@@ -9,6 +9,7 @@ import static common.RequireNonNull.requireNonNull;
 
 import compiler.common.Visitor;
 import compiler.lexer.Position;
+import compiler.parser.ast.NodeIds;
 
 public class TypeName extends Type {
     /**
@@ -16,8 +17,8 @@ public class TypeName extends Type {
      */
     public final String identifier;
 
-    public TypeName(Position position, String identifier) {
-        super(position);
+    public TypeName(NodeIds ids, Position position, String identifier) {
+        super(ids, position);
         requireNonNull(identifier);
         this.identifier = identifier;
     }
@@ -0,0 +1,588 @@
+/**
+ * @ Author: turk
+ * @ Description: Združeno razreševanje imen, preverjanje tipov
+ * in analiza klicnih zapisov.
+ */
+
+package compiler.seman;
+
+import static common.RequireNonNull.requireNonNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+import common.Constants;
+import common.Report;
+import compiler.common.Visitor;
+import compiler.frm.Access;
+import compiler.frm.CompilationContext;
+import compiler.frm.Frame;
+import compiler.parser.ast.def.*;
+import compiler.parser.ast.def.FunDef.Parameter;
+import compiler.parser.ast.expr.*;
+import compiler.parser.ast.expr.Unary.Operator;
+import compiler.parser.ast.type.Array;
+import compiler.parser.ast.type.Atom;
+import compiler.parser.ast.type.TypeName;
+import compiler.seman.common.NodeDescription;
+import compiler.seman.name.env.SymbolTable;
+import compiler.seman.name.env.SymbolTable.DefinitionAlreadyExistsException;
+import compiler.seman.type.type.Type;
+import compiler.seman.type.type.Type.Atom.Kind;
+
+/**
+ * Izračuna iste opise vozlišč kot zaporedje `NameChecker`, `TypeChecker`
+ * in `FrameEvaluator`, le da vsako vozlišče izraza obišče enkrat.
+ *
+ * Definicije se lahko uporabijo pred mestom definicije, zato vsako
+ * skupino definicij (`Defs`) obdelamo v dveh korakih:
+ * 1. vse definicije vstavimo v simbolno tabelo in razrešimo njihove
+ *    tipe (tipi definicij so odvisni le od drugih tipov, ne od izrazov);
+ * 2. definicije obiščemo po vrsti: telesom funkcij razrešimo imena,
+ *    izračunamo tipe in hkrati sestavimo klicne zapise.
+ *
+ * Klicni zapisi in dostopi se sestavijo v enakem vrstnem redu kot v
+ * `FrameEvaluator` (vključno s tem, da se klici znotraj argumentov klica
+ * ne upoštevajo), zato so labele in odmiki enaki.
+ *
+ * Program sprejme natanko tedaj, ko ga sprejmejo ločene faze, in
+ * rezultati so enaki; če program vsebuje več napak, se lahko izpiše
+ * druga (prva najdena) napaka.
+ */
+public class SemanticAnalyzer implements Visitor {
+    private static final Set<String> library = Set.of(
+            Constants.printStringLabel,
+            Constants.printIntLabel,
+            Constants.printLogLabel,
+            Constants.randIntLabel,
+            Constants.seedLabel);
+
+    /**
+     * Generator anonimnih label.
+     */
+    private final CompilationContext context;
+
+    /**
+     * Opis vozlišč in njihovih definicij.
+     */
+    private final NodeDescription<Def> definitions;
+
+    /**
+     * Opis vozlišč in njihovih podatkovnih tipov.
+     */
+    private final NodeDescription<Type> types;
+
+    /**
+     * Opis definicij funkcij in njihovih klicnih zapisov.
+     */
+    private final NodeDescription<Frame> frames;
+
+    /**
+     * Opis definicij spremenljivk in njihovih dostopov.
+     */
+    private final NodeDescription<Access> accesses;
+
+    /**
+     * Simbolna tabela.
+     */
+    private final SymbolTable symbolTable;
+
+    /**
+     * Klicni zapisi funkcij, katerih telesa trenutno obiskujemo.
+     */
+    private final Deque<Frame.Builder> builders = new ArrayDeque<>();
+
+    /**
+     * Statični nivo trenutne funkcije.
+     */
+    private int staticLevel = 0;
+
+    /**
+     * Globina gnezdenja v argumentih klicev; `FrameEvaluator` argumentov
+     * ne obišče, zato se v njih klicni zapisi ne sestavljajo.
+     */
+    private int callArguments = 0;
+
+    /**
+     * Definicije tipov, katerih tip trenutno razrešujemo (zaznavanje ciklov).
+     */
+    private final Set<TypeDef> resolving = new HashSet<>();
+
+    public SemanticAnalyzer(
+            CompilationContext context,
+            NodeDescription<Def> definitions,
+            NodeDescription<Type> types,
+            NodeDescription<Frame> frames,
+            NodeDescription<Access> accesses,
+            SymbolTable symbolTable
+    ) {
+        requireNonNull(context, definitions, types, frames, accesses, symbolTable);
+        this.context = context;
+        this.definitions = definitions;
+        this.types = types;
+        this.frames = frames;
+        this.accesses = accesses;
+        this.symbolTable = symbolTable;
+    }
+
+    private boolean evaluatesFrames() {
+        return callArguments == 0;
+    }
+
+    // ----------- definicije -----------
+
+    @Override
+    public void visit(Defs defs) {
+        for (var def : defs.definitions) {
+            try {
+                symbolTable.insert(def);
+            } catch (DefinitionAlreadyExistsException e) {
+                Report.error("Definition already exists! " + def.name + def.position);
+            }
+        }
+        for (var def : defs.definitions) {
+            declare(def);
+        }
+        for (var def : defs.definitions) {
+            def.accept(this);
+        }
+    }
+
+    /**
+     * Razreši tip definicije (brez telesa funkcije).
+     */
+    private void declare(Def def) {
+        if (def instanceof TypeDef typeDef) {
+            resolve(typeDef);
+        } else if (def instanceof VarDef varDef) {
+            varDef.type.accept(this);
+            var type = types.get(varDef.type);
+            if (type == null) {
+                Report.error(varDef.position, "Tip spremenljivke " + varDef.name + " ni definiran!");
+            }
+            types.store(type, varDef);
+        } else if (def instanceof FunDef funDef) {
+            funDef.type.accept(this);
+            var parameterTypes = new ArrayList<Type>();
+            for (var parameter : funDef.parameters) {
+                parameter.type.accept(this);
+                var type = types.get(parameter.type);
+                if (type == null) {
+                    Report.error(parameter.position, "Tip parametra " + parameter.name + " ni definiran!");
+                }
+                types.store(type, parameter);
+                parameterTypes.add(type);
+            }
+            var returnType = types.get(funDef.type);
+            if (returnType == null) {
+                Report.error(funDef.type.position, "Napaka v tipih funkcije");
+            }
+            types.store(new Type.Function(parameterTypes, returnType), funDef);
+        }
+    }
+
+    /**
+     * Razreši tip definicije tipa; tip, ki je uporabljen pred svojo
+     * definicijo, se razreši ob prvi uporabi.
+     */
+    private void resolve(TypeDef typeDef) {
+        if (types.contains(typeDef)) {
+            return;
+        }
+        if (!resolving.add(typeDef)) {
+            Report.error("Zaznan cikel!");
+        }
+        typeDef.type.accept(this);
+        var type = types.get(typeDef.type);
+        if (type == null) {
+            Report.error(typeDef.position, "Tip " + typeDef.name + " ni definiran!");
+        }
+        types.store(type, typeDef);
+        resolving.remove(typeDef);
+    }
+
+    @Override
+    public void visit(FunDef funDef) {
+        var builder = evaluatesFrames() ? beginFrame(funDef) : null;
+        symbolTable.inNewScope(() -> {
+            funDef.parameters.forEach(parameter -> parameter.accept(this));
+            funDef.body.accept(this);
+        });
+        var bodyType = types.get(funDef.body);
+        if (bodyType == null) {
+            Report.error(funDef.body.position, "Napaka v body funkcije!");
+        }
+        if (!types.get(funDef.type).equals(bodyType)) {
+            Report.error(funDef.type.position, "Neveljaven return type v funkciji!");
+        }
+        if (builder != null) {
+            frames.store(builder.build(), funDef);
+            builders.pop();
+            staticLevel--;
+        }
+    }
+
+    private Frame.Builder beginFrame(FunDef funDef) {
+        staticLevel++;
+        var builder = staticLevel == 1
+                ? new Frame.Builder(Frame.Label.named(funDef.name), staticLevel)
+                : new Frame.Builder(context.nextLabel(), staticLevel);
+        // statična povezava
+        builder.addParameter(Constants.WordSize);
+        for (var parameter : funDef.parameters) {
+            var size = types.get(parameter.type).sizeInBytesAsParam();
+            var offset = builder.addParameter(size);
+            accesses.store(new Access.Parameter(size, offset, staticLevel), parameter);
+        }
+        builders.push(builder);
+        return builder;
+    }
+
+    @Override
+    public void visit(TypeDef typeDef) {
+        if (evaluatesFrames()) {
+            allocate(typeDef, typeDef.name);
+        }
+    }
+
+    @Override
+    public void visit(VarDef varDef) {
+        if (evaluatesFrames()) {
+            allocate(varDef, varDef.name);
+        }
+    }
+
+    /**
+     * Dostop do globalne ali lokalne definicije (tudi definicije tipov
+     * dobijo prostor, kot v `FrameEvaluator`).
+     */
+    private void allocate(Def def, String name) {
+        var size = types.get(def).sizeInBytes();
+        if (staticLevel == 0) {
+            accesses.store(new Access.Global(size, Frame.Label.named(name)), def);
+        } else {
+            var offset = builders.peek().addLocalVariable(size);
+            accesses.store(new Access.Local(size, offset, staticLevel), def);
+        }
+    }
+
+    @Override
+    public void visit(Parameter parameter) {
+        try {
+            symbolTable.insert(parameter);
+        } catch (DefinitionAlreadyExistsException e) {
+            Report.error("Error in NameChecker.visit(Parameter parameter)");
+        }
+    }
+
+    // ----------- tipi -----------
+
+    @Override
+    public void visit(Array array) {
+        array.type.accept(this);
+        var type = types.get(array.type);
+        if (type == null) {
+            Report.error(array.position, "Tip seznama ni definiran!");
+        }
+        if (type.isAtom() || type.isArray()) {
+            types.store(new Type.Array(array.size, type), array);
+        }
+    }
+
+    @Override
+    public void visit(Atom atom) {
+        switch (atom.type) {
+            case INT -> types.store(new Type.Atom(Kind.INT), atom);
+            case LOG -> types.store(new Type.Atom(Kind.LOG), atom);
+            case STR -> types.store(new Type.Atom(Kind.STR), atom);
+            default -> Report.error(atom.position, "Nepoznan tip atomarnega izraza!");
+        }
+    }
+
+    @Override
+    public void visit(TypeName name) {
+        var definition = symbolTable.definitionFor(name.identifier);
+        if (definition.isEmpty()) {
+            Report.error(name.position + " Nedefiniran tip " + name.identifier);
+        }
+        var def = definition.get();
+        if (def instanceof VarDef) {
+            Report.error(name.position + " " + name.identifier + " je spremenljvka, ne tip!");
+        } else if (def instanceof FunDef) {
+            Report.error(name.position + " " + name.identifier + " je funkcija, ne tip!");
+        } else if (def instanceof Parameter) {
+            Report.error(name.position + " " + name.identifier + " je parameter, ne tip!");
+        }
+        definitions.store(def, name);
+        var typeDef = (TypeDef) def;
+        resolve(typeDef);
+        var type = types.get(typeDef);
+        if (type == null) {
+            Report.error(name.position, "Nedefiniran tip!");
+        }
+        if (type.isAtom() || type.isArray()) {
+            types.store(type, name);
+        }
+    }
+
+    // ----------- izrazi -----------
+
+    @Override
+    public void visit(Call call) {
+        var definition = symbolTable.definitionFor(call.name);
+        if (definition.isPresent()) {
+            if (!(definition.get() instanceof FunDef)) {
+                Report.error(call.name + " ni funkcija!");
+            }
+            definitions.store(definition.get(), call);
+        } else if (!library.contains(call.name)) {
+            Report.error(call.name + " ni definirana funkcija!");
+        }
+
+        callArguments++;
+        call.arguments.forEach(argument -> argument.accept(this));
+        callArguments--;
+
+        var argumentTypes = new ArrayList<Type>(call.arguments.size());
+        var argumentsSize = 0;
+        for (var argument : call.arguments) {
+            var type = types.get(argument);
+            if (type == null) {
+                Report.error(call.position, "Napacen tip v argumentu!");
+            }
+            argumentTypes.add(type);
+            argumentsSize += type.sizeInBytesAsParam();
+        }
+
+        if (library.contains(call.name)) {
+            typeLibraryCall(call, argumentTypes);
+        } else {
+            typeCall(call, argumentTypes);
+            // statična povezava
+            argumentsSize += Constants.WordSize;
+        }
+        if (evaluatesFrames()) {
+            builders.peek().addFunctionCall(argumentsSize);
+        }
+    }
+
+    private void typeLibraryCall(Call call, ArrayList<Type> argumentTypes) {
+        switch (call.name) {
+            case Constants.printStringLabel -> {
+                if (argumentTypes.size() != 1) {
+                    Report.error(call.position, "Napacno stevilo argumentov!");
+                }
+                if (!argumentTypes.get(0).isStr()) {
+                    Report.error(call.position, "Napacen tip argumenta!");
+                }
+                types.store(new Type.Atom(Kind.STR), call);
+            }
+            case Constants.printLogLabel -> {
+                if (argumentTypes.size() != 1) {
+                    Report.error(call.position, "Napacno stevilo argumentov!");
+                }
+                if (!argumentTypes.get(0).isLog()) {
+                    Report.error(call.position, "Napacen tip argumenta!");
+                }
+                types.store(new Type.Atom(Kind.LOG), call);
+            }
+            case Constants.randIntLabel -> {
+                if (argumentTypes.size() != 2) {
+                    Report.error(call.position, "Napacno stevilo argumentov!");
+                }
+                if (!argumentTypes.get(0).isInt() || !argumentTypes.get(1).isInt()) {
+                    Report.error(call.position, "Napacen tip argumenta!");
+                }
+                types.store(new Type.Atom(Kind.INT), call);
+            }
+            default -> {
+                if (argumentTypes.size() != 1) {
+                    Report.error(call.position, "Napacno stevilo argumentov!");
+                }
+                if (!argumentTypes.get(0).isInt()) {
+                    Report.error(call.position, "Napacen tip argumenta!");
+                }
+                types.store(new Type.Atom(Kind.INT), call);
+            }
+        }
+    }
+
+    private void typeCall(Call call, ArrayList<Type> argumentTypes) {
+        // tip funkcije je razrešen že pri deklaraciji
+        var function = types.get(definitions.get(call)).asFunction();
+        if (function.isEmpty()) {
+            Report.error(call.position, "Tip funkcije ni definiran!");
+        }
+        var type = function.get();
+        if (type.parameters.size() != argumentTypes.size()) {
+            Report.error(call.position, "Napačno stevilo argumentov!");
+        }
+        for (int i = 0; i < type.parameters.size(); i++) {
+            if (!type.parameters.get(i).equals(argumentTypes.get(i))) {
+                Report.error(call.position, "Argument napacnega tipa!");
+            }
+        }
+        types.store(type.returnType, call);
+    }
+
+    @Override
+    public void visit(Binary binary) {
+        binary.left.accept(this);
+        binary.right.accept(this);
+
+        var leftType = types.get(binary.left);
+        var rightType = types.get(binary.right);
+        if (leftType == null || rightType == null) {
+            return;
+        }
+        if (binary.operator.isAndOr()) {
+            if (!leftType.isLog() || !rightType.isLog()) {
+                Report.error(binary.position, "Napaka pri logičnem izrazu!");
+            }
+            types.store(new Type.Atom(Kind.LOG), binary);
+        } else if (binary.operator.isArithmetic()) {
+            if (!leftType.isInt() || !rightType.isInt()) {
+                Report.error(binary.position, "Napaka pri aritmetičnem izrazu!");
+            }
+            types.store(new Type.Atom(Kind.INT), binary);
+        } else if (binary.operator.isComparison()) {
+            if (!(leftType.isInt() && rightType.isInt()) && !(leftType.isLog() && rightType.isLog())) {
+                Report.error(binary.position, "Napaka pri primerjalnem izrazu!");
+            }
+            types.store(new Type.Atom(Kind.LOG), binary);
+        } else if (binary.operator == Binary.Operator.ARR) {
+            if (!leftType.isArray() || !rightType.isInt()) {
+                Report.error(binary.position, "Napaka pri izrazu s tabelami!");
+            }
+            types.store(leftType.asArray().get().type, binary);
+        } else if (binary.operator == Binary.Operator.ASSIGN) {
+            if (!leftType.equals(rightType) || !(rightType.isLog() || rightType.isInt() || rightType.isStr())) {
+                Report.error(binary.position, "Nedovoljeno prirejanje!");
+            }
+            types.store(leftType, binary);
+        }
+    }
+
+    @Override
+    public void visit(Block block) {
+        block.expressions.forEach(expression -> expression.accept(this));
+        var type = types.get(block.expressions.get(block.expressions.size() - 1));
+        if (type == null) {
+            Report.error(block.position, "Neveljaven tip zadnjega izraza!");
+        }
+        types.store(type, block);
+    }
+
+    @Override
+    public void visit(For forLoop) {
+        // vrstni red kot v `FrameEvaluator` (odmiki lokalnih spremenljivk)
+        forLoop.counter.accept(this);
+        forLoop.low.accept(this);
+        forLoop.high.accept(this);
+        forLoop.step.accept(this);
+        forLoop.body.accept(this);
+
+        checkInt(forLoop.counter, "Neveljaven tip števca v for zanki!", "Napaka v števcu zanke!");
+        checkInt(forLoop.low, "Neveljaven tip spodnje meje v for zanki!", "Napaka v spodnji meji zanke!");
+        checkInt(forLoop.high, "Neveljaven tip zgornje meje v for zanki!", "Napaka v zgornji meji zanke!");
+        checkInt(forLoop.step, "Neveljaven tip inkrementa v for zanki!", "Napaka v inkrementu zanke!");
+        types.store(new Type.Atom(Kind.VOID), forLoop);
+    }
+
+    private void checkInt(Expr expr, String wrongType, String missingType) {
+        var type = types.get(expr);
+        if (type == null) {
+            Report.error(expr.position, missingType);
+        }
+        if (!type.isInt()) {
+            Report.error(expr.position, wrongType);
+        }
+    }
+
+    private void checkLog(Expr expr, String wrongType, String missingType) {
+        var type = types.get(expr);
+        if (type == null) {
+            Report.error(expr.position, missingType);
+        }
+        if (!type.isLog()) {
+            Report.error(expr.position, wrongType);
+        }
+    }
+
+    @Override
+    public void visit(Name name) {
+        var definition = symbolTable.definitionFor(name.name);
+        if (definition.isEmpty()) {
+            Report.error(name.position + " Nedefinirana spremenljivka " + name.name);
+        }
+        var def = definition.get();
+        if (def instanceof FunDef) {
+            Report.error(name.position + " " + name.name + " je funkcija, ne spremenljivka!");
+        } else if (def instanceof TypeDef) {
+            Report.error(name.position + " " + name.name + " je tip, ne spremenljivka!");
+        }
+        definitions.store(def, name);
+        types.store(types.get(def), name);
+    }
+
+    @Override
+    public void visit(IfThenElse ifThenElse) {
+        ifThenElse.condition.accept(this);
+        ifThenElse.thenExpression.accept(this);
+        ifThenElse.elseExpression.ifPresent(expression -> expression.accept(this));
+
+        checkLog(ifThenElse.condition, "Neveljaven tip pogojne izjave!", "Napaka v pogojni izjavi!");
+        types.store(new Type.Atom(Kind.VOID), ifThenElse);
+    }
+
+    @Override
+    public void visit(Literal literal) {
+        switch (literal.type) {
+            case INT -> types.store(new Type.Atom(Kind.INT), literal);
+            case LOG -> types.store(new Type.Atom(Kind.LOG), literal);
+            case STR -> types.store(new Type.Atom(Kind.STR), literal);
+            default -> Report.error(literal.position, "Neznan tip!");
+        }
+    }
+
+    @Override
+    public void visit(Unary unary) {
+        unary.expr.accept(this);
+        var type = types.get(unary.expr);
+        if (type == null) {
+            Report.error(unary.position, "Napaka v izrazu!");
+        }
+        if (type.isLog() && unary.operator == Operator.NOT) {
+            types.store(new Type.Atom(Kind.LOG), unary);
+        } else if (type.isInt() && (unary.operator == Operator.SUB || unary.operator == Operator.ADD)) {
+            types.store(new Type.Atom(Kind.INT), unary);
+        } else {
+            Report.error(unary.position, "Napaka v unarnem izrazu!");
+        }
+    }
+
+    @Override
+    public void visit(While whileLoop) {
+        whileLoop.condition.accept(this);
+        whileLoop.body.accept(this);
+
+        checkLog(whileLoop.condition, "Neveljaven tip pogoja v while zanki!", "Napaka v pogoju zanke!");
+        types.store(new Type.Atom(Kind.VOID), whileLoop);
+    }
+
+    @Override
+    public void visit(Where where) {
+        symbolTable.inNewScope(() -> {
+            where.defs.accept(this);
+            where.expr.accept(this);
+        });
+        var type = types.get(where.expr);
+        if (type == null) {
+            Report.error(where.position, "Neveljaven tip izraza!");
+        }
+        types.store(type, where);
+    }
+}
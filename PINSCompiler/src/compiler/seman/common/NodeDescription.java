@@ -1,32 +1,94 @@
 /**
  * @ Author: turk
- * @ Description: Preslikava iz vozlišč abstraktnega 
+ * @ Description: Preslikava iz vozlišč abstraktnega
  * sintaksnega drevesa v vrednosti poljubnega tipa.
  */
 
 package compiler.seman.common;
 
-import java.util.HashMap;
-import java.util.Map;
+import static common.RequireNonNull.requireNonNull;
+
+import java.util.Arrays;
 import java.util.Optional;
 
 import compiler.parser.ast.Ast;
 
+/**
+ * Vrednosti so shranjene v tabeli, indeksirani z identifikatorjem
+ * vozlišča (`Ast.id`), zato dostop ne potrebuje razprševanja.
+ *
+ * Poleg vrednosti hranimo še vozlišče, za katerega je vrednost shranjena;
+ * vozlišča se primerjajo po identiteti, tako da vozlišče drugega drevesa
+ * z enakim identifikatorjem ne dobi tuje vrednosti.
+ */
 public class NodeDescription<T> {
-    private Map<Ast, T> storage = new HashMap<>();
+    private static final int INITIAL_CAPACITY = 64;
+
+    private Ast[] nodes;
+    private Object[] values;
+
+    public NodeDescription() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Ustvari opis s prostorom za vozlišča z `id < capacity`.
+     *
+     * Dokler tabela ne raste, lahko več niti hkrati shranjuje vrednosti
+     * za različna vozlišča (npr. `ParallelIRCodeGenerator`).
+     */
+    public NodeDescription(int capacity) {
+        nodes = new Ast[Math.max(capacity, 1)];
+        values = new Object[nodes.length];
+    }
 
     /**
      * Vrne vrednost za podano vozlišče, če je le-ta
      * prisotna.
      */
     public Optional<T> valueFor(Ast node) {
-        return Optional.ofNullable(storage.get(node));
+        return Optional.ofNullable(get(node));
+    }
+
+    /**
+     * Vrne vrednost za podano vozlišče ali `null`, če
+     * vrednosti ni (brez ustvarjanja objektov).
+     */
+    @SuppressWarnings("unchecked")
+    public T get(Ast node) {
+        var id = node.id;
+        if (id < nodes.length && nodes[id] == node) {
+            return (T) values[id];
+        }
+        return null;
+    }
+
+    /**
+     * Ali je za vozlišče shranjena vrednost.
+     */
+    public boolean contains(Ast node) {
+        return get(node) != null;
     }
 
     /**
      * Shrani vrednost za vozlišče.
+     *
+     * @return `true`, če za vozlišče še ni bilo vrednosti.
      */
     public boolean store(T value, Ast forNode) {
-        return storage.put(forNode, value) == null;
+        requireNonNull(forNode);
+        var id = forNode.id;
+        if (id >= nodes.length) {
+            var capacity = Math.max(id + 1, nodes.length + (nodes.length >> 1));
+            nodes = Arrays.copyOf(nodes, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        if (nodes[id] != null && nodes[id] != forNode) {
+            throw new IllegalArgumentException("Node id " + id + " is already used by another tree!");
+        }
+        var absent = values[id] == null;
+        nodes[id] = forNode;
+        values[id] = value;
+        return absent;
     }
 }
@@ -105,18 +105,15 @@ public class TypeChecker implements Visitor {
         }
 
         // Preveri ali je funkcija definirana
-        var def = definitions.valueFor(call);
-        if (def.isPresent()) {
-            var getDef = def.get();
-            // Preveri tip funkcije
-            var findType = types.valueFor(getDef);
-
+        var getDef = definitions.get(call);
+        if (getDef != null) {
             // Sprejmi tip funkcije, ce ga se ni
             // To je v primeru, da je tip definiran kasneje kot je funkcija definirana
-            if (!findType.isPresent()) {
+            if (!types.contains(getDef)) {
                 getDef.accept(this);
-                findType = types.valueFor(getDef);
             }
+            // Preveri tip funkcije
+            var findType = types.valueFor(getDef);
 
             // Ce je tip definiran,
             if (findType.isPresent()) {
@@ -155,14 +152,14 @@ public class TypeChecker implements Visitor {
         binary.right.accept(this);
 
         // Pridobi tipa levega in desnega izraza
-        var leftType = types.valueFor(binary.left);
-        var rightType = types.valueFor(binary.right);
+        var leftType = types.get(binary.left);
+        var rightType = types.get(binary.right);
 
         // Preveri ali sta oba tipa definirana
-        if (leftType.isPresent() && rightType.isPresent()) {
+        if (leftType != null && rightType != null) {
             // Ce je operator and ali or, preveri ali sta oba tipa logična
             if (binary.operator.isAndOr()) {
-                if (leftType.get().isLog() && rightType.get().isLog()) {
+                if (leftType.isLog() && rightType.isLog()) {
                     types.store(new Type.Atom(Kind.LOG), binary);
                     return;
                 } else {
@@ -170,7 +167,7 @@ public class TypeChecker implements Visitor {
                 }
                 // Ce je operator aritmeticen preveri ali sta oba tipa cela stevila
             } else if (binary.operator.isArithmetic()) {
-                if (leftType.get().isInt() && rightType.get().isInt()) {
+                if (leftType.isInt() && rightType.isInt()) {
                     types.store(new Type.Atom(Kind.INT), binary);
                     return;
                 } else {
@@ -178,8 +175,8 @@ public class TypeChecker implements Visitor {
                 }
                 // Ce je operator primerjalni preveri ali sta oba tipa cela stevila ali logična
             } else if (binary.operator.isComparison()) {
-                if ((leftType.get().isInt() && rightType.get().isInt()) || (leftType.get().isLog()
-                        && rightType.get().isLog())) {
+                if ((leftType.isInt() && rightType.isInt()) || (leftType.isLog()
+                        && rightType.isLog())) {
                     types.store(new Type.Atom(Kind.LOG), binary);
                     return;
                 } else {
@@ -187,8 +184,8 @@ public class TypeChecker implements Visitor {
                 }
                 // Ce je operator arr preveri da je levi tip tabela in desni tip celo stevilo
             } else if (binary.operator.equals(Binary.Operator.ARR)) {
-                if (leftType.get().isArray() && rightType.get().isInt()) {
-                    var asArray = leftType.get().asArray();
+                if (leftType.isArray() && rightType.isInt()) {
+                    var asArray = leftType.asArray();
                     types.store(asArray.get().type, binary);
                     return;
                 } else
@@ -196,9 +193,9 @@ public class TypeChecker implements Visitor {
                 // Ce je operator prirejanje preveri, da se levi in desni tip ujemata in da sta
                 // oba logična, cela stevila ali nizi
             } else if (binary.operator.equals(Binary.Operator.ASSIGN)) {
-                if (leftType.get().equals(rightType.get()) && ((rightType.get().isLog()) || rightType.get().isInt()
-                        || rightType.get().isStr())) {
-                    types.store(leftType.get(), binary);
+                if (leftType.equals(rightType) && ((rightType.isLog()) || rightType.isInt()
+                        || rightType.isStr())) {
+                    types.store(leftType, binary);
                     return;
                 } else
                     Report.error(binary.position, "Nedovoljeno prirejanje!");
@@ -256,7 +253,13 @@ public class TypeChecker implements Visitor {
 
     @Override
     public void visit(Name name) {
-        types.store(types.valueFor(definitions.valueFor(name).get()).get(), name);
+        var definition = definitions.get(name);
+        // Sprejmi tip spremenljivke, ce ga se ni
+        // To je v primeru, da je spremenljivka definirana kasneje kot je uporabljena
+        if (definition != null && !types.contains(definition)) {
+            definition.accept(this);
+        }
+        types.store(types.get(definition), name);
     }
 
     @Override
@@ -350,6 +353,10 @@ public class TypeChecker implements Visitor {
 
     @Override
     public void visit(FunDef funDef) {
+        // Funkcija je bila ze preverjena ob klicu pred definicijo
+        if (types.contains(funDef)) {
+            return;
+        }
         // Sprejmi parametre
         funDef.parameters.stream().forEach(param -> param.accept(this));
         // Sprejmi funkcijski tip
@@ -373,7 +380,7 @@ public class TypeChecker implements Visitor {
             // Preveri tip telesa funkcije
             types.valueFor(funDef.type).ifPresent(funType -> {
                 // Preveri ali se tipa ujemata
-                if (types.valueFor(funDef.type).get().equals(funBodyType)) {
+                if (types.get(funDef.type).equals(funBodyType)) {
                     types.store(new Type.Function(parameterTypes, funType), funDef);
                     return;
                 } else
@@ -384,6 +391,11 @@ public class TypeChecker implements Visitor {
 
     @Override
     public void visit(TypeDef typeDef) {
+        // Tip je bil ze izracunan ob uporabi pred definicijo; ponoven izracun
+        // bi ustvaril nov tip tabele, ki ni enak ze uporabljenemu
+        if (types.contains(typeDef)) {
+            return;
+        }
         // Preverjanje ciklov... Ce smo tekom preverjanja ze obiskali ta tip, potem je
         // cikel
         // V smislu typ a = b; typ b = a;
@@ -401,6 +413,10 @@ public class TypeChecker implements Visitor {
 
     @Override
     public void visit(VarDef varDef) {
+        // Tip je bil ze izracunan ob uporabi pred definicijo
+        if (types.contains(varDef)) {
+            return;
+        }
         // Sprejmi tip spremenljivke
         varDef.type.accept(this);
         // Preveri ce je tip definiran
@@ -456,15 +472,12 @@ public class TypeChecker implements Visitor {
     public void visit(TypeName name) {
         var def = definitions.valueFor(name);
         def.ifPresentOrElse(definition -> {
-            var findType = types.valueFor(definition);
-
             // Sprejmi tip, ce ga se ni
             // To je v primeru, da je tip definiran kasneje kot je uporabljen
-            if (!findType.isPresent()) {
+            if (!types.contains(definition)) {
                 definition.accept(this);
-                findType = types.valueFor(definition);
             }
-            findType.ifPresentOrElse(type -> {
+            types.valueFor(definition).ifPresentOrElse(type -> {
                 var asAtom = type.asAtom();
                 asAtom.ifPresent(atom -> {
                     types.store(atom, name);